@@ -5,7 +5,9 @@ import utility.Constants;
 import utility.IO;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -59,14 +61,28 @@ public class Contig extends Attributable {
     /**
      * Cache to store the sequence of a contig for a specific start and end position.
      * <p>
-     * This field is a transient {@link HashMap} used to cache subsequences of the contig's sequence.
+     * This field is a transient {@link ConcurrentHashMap} used to cache subsequences of the contig's sequence.
      * The keys in the map are {@link Tuple} objects representing the start and end positions of the subsequence,
      * and the values are the corresponding subsequences as {@link String}.
      * <p>
      * The cache is transient because it is not intended to be serialized, as it is dynamically populated
-     * during runtime to optimize performance by avoiding redundant sequence decompression or retrieval.
+     * during runtime to optimize performance by avoiding redundant sequence decompression or retrieval. It is
+     * concurrent, as subsequences may be requested by multiple threads during parallel sequence type inference.
      */
-    protected transient HashMap<Tuple<Integer, Integer>, String> sequenceCache;
+    protected transient ConcurrentHashMap<Tuple<Integer, Integer>, String> sequenceCache;
+
+    /**
+     * Per-sample index of the variants located on this contig.
+     * <p>
+     * This field is a transient {@link HashMap} that maps sample names to a {@link SampleVariantIndex}, i.e.,
+     * a position-sorted primitive array of the variant positions of the sample and the alternative content
+     * of each variant. It enables sample-scoped (range) queries to be answered by binary search and a scan
+     * over the variants of the sample only, instead of a walk over all positions of the contig.
+     * <p>
+     * The index is maintained incrementally by {@link #indexSampleVariant(String, int, String)} and is
+     * rebuilt from the {@link #variants} map by {@link #buildSampleIndex()} after deserialization.
+     */
+    protected transient HashMap<String, SampleVariantIndex> sampleIndex;
 
     /**
      * Constructs a new {@link Contig} instance with the specified name and sequence.
@@ -84,7 +100,39 @@ public class Contig extends Attributable {
         this.name = name;
         this.sequence = sequence;
         this.variants = new TreeMap<>(Integer::compare);
-        this.sequenceCache = new HashMap<>();
+        this.sequenceCache = new ConcurrentHashMap<>();
+        this.sampleIndex = new HashMap<>();
+    }
+
+    /**
+     * Registers a variant of a sample in the per-sample index of this contig.
+     * <p>
+     * A sample is associated with at most one alternative content per position; if several variants of a sample
+     * are registered at the same position, the lexicographically smallest alternative content is kept, so that
+     * the index does not depend on the order in which variants are registered.
+     *
+     * @param sampleName       The name of the sample the variant occurs in.
+     * @param position         The 1-based position of the variant on the contig.
+     * @param alternativeBases The alternative base sequence of the variant.
+     */
+    protected void indexSampleVariant(String sampleName, int position, String alternativeBases) {
+        sampleIndex.computeIfAbsent(sampleName, k -> new SampleVariantIndex()).add(position, alternativeBases);
+    }
+
+    /**
+     * (Re-)builds the per-sample index of this contig from the {@link #variants} map.
+     * <p>
+     * This method is intended to be used after deserialization, as the index is not stored.
+     */
+    protected void buildSampleIndex() {
+        this.sampleIndex = new HashMap<>();
+        this.variants.forEach((position, innerMap) ->
+                innerMap.forEach((alternativeBases, variantInformation) ->
+                        variantInformation.getSampleOccurrence().forEach(sampleName ->
+                                indexSampleVariant(sampleName, position, alternativeBases)
+                        )
+                )
+        );
     }
 
     /**
@@ -117,6 +165,22 @@ public class Contig extends Attributable {
             return Constants.EMPTY;
     }
 
+    /**
+     * Opens a {@link Reader} on the nucleotide sequence of this contig.
+     * <p>
+     * Unlike {@link #getSequence()}, the sequence is decompressed while it is read, i.e., it is never materialized as
+     * a whole. If no sequence is stored, the reader is empty. The caller is responsible for closing the reader.
+     *
+     * @return A {@link Reader} on the decompressed nucleotide sequence of this contig.
+     * @throws IOException If an error occurs during the decompression of the sequence.
+     */
+    public Reader getSequenceReader() throws IOException {
+        if (hasSequence())
+            return IO.gzipDecompressReader(this.sequence);
+        else
+            return Reader.nullReader();
+    }
+
     /**
      * Retrieves a subsequence of this contig, caching the result to optimize performance.
      * <p>
@@ -136,13 +200,12 @@ public class Contig extends Attributable {
     public String getSubsequence(int start, int end) throws IOException {
         if (hasSequence()) {
             Tuple<Integer, Integer> cacheKey = new Tuple<>(start, end);
-            if (sequenceCache.containsKey(cacheKey)) {
-                return sequenceCache.get(cacheKey);
-            } else {
-                String subsequence = getSequence().substring(start - 1, end);
+            String subsequence = sequenceCache.get(cacheKey);
+            if (subsequence == null) {
+                subsequence = getSequence().substring(start - 1, end);
                 sequenceCache.put(cacheKey, subsequence);
-                return subsequence;
             }
+            return subsequence;
         } else {
             return Constants.EMPTY;
         }
@@ -230,6 +293,19 @@ public class Contig extends Attributable {
         return variants;
     }
 
+    /**
+     * Retrieves an unmodifiable view of the variants of this contig, ordered by their position.
+     * <p>
+     * Each entry maps a 1-based position to the {@link VariantInformation} of the variants at this position, keyed by
+     * their alternative base sequence. In contrast to {@link #getVariants()}, no intermediate list is created, which
+     * allows variants to be streamed in order of their position.
+     *
+     * @return An unmodifiable {@link NavigableMap} of positions to variants at this position.
+     */
+    public NavigableMap<Integer, Map<String, VariantInformation>> getVariantsByPosition() {
+        return Collections.unmodifiableNavigableMap(this.variants);
+    }
+
     /**
      * Retrieves variants located within a specified range on this contig.
      * <p>
@@ -289,10 +365,9 @@ public class Contig extends Attributable {
     /**
      * Retrieves variants associated with a specific sample.
      * <p>
-     * This method filters the {@code variants} map to identify variants that are associated
-     * with the specified sample. For each position in the map, it checks the inner map of
-     * alternative sequences and retrieves the first variant that matches the sample. Each
-     * matching variant is represented as a {@link Tuple} containing:
+     * This method queries the per-sample index of this contig to retrieve all variants that are
+     * associated with the specified sample, ordered by their position. Each matching variant is
+     * represented as a {@link Tuple} containing:
      * <ul>
      *   <li>The position of the variant on the contig.</li>
      *   <li>The alternative base sequence of the variant.</li>
@@ -303,24 +378,16 @@ public class Contig extends Attributable {
      * the position and alternative base sequence of a variant associated with the specified sample.
      */
     public ArrayList<Tuple<Integer, String>> getVariantsBySample(String sampleName) {
-        ArrayList<Tuple<Integer, String>> sampleVariants = new ArrayList<>();
-        this.variants.forEach((position, innerMap) ->
-                innerMap.entrySet().stream()
-                        .filter(e -> e.getValue().hasOccurrence(Attributable.sampleOccurrence, sampleName))
-                        .findFirst()
-                        .ifPresent(e -> sampleVariants.add(new Tuple<>(position, e.getKey())))
-        );
-        return sampleVariants;
+        return getVariantsBySampleAndLocation(sampleName, Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     /**
      * Retrieves variants associated with a specific sample within a specified location range.
      * <p>
-     * This method filters the {@code variants} map to identify variants that are associated
-     * with the specified sample and fall within the given start and end positions. It first
-     * retrieves a sub-map of variants within the location range and then filters the inner
-     * maps to find variants matching the sample. Each matching variant is represented as a
-     * {@link Tuple} containing:
+     * This method queries the per-sample index of this contig to identify variants that are associated
+     * with the specified sample and fall within the given start and end positions. The first variant
+     * within the range is located by binary search, and only the variants of the sample are scanned
+     * thereafter. Each matching variant is represented as a {@link Tuple} containing:
      * <ul>
      *   <li>The position of the variant on the contig.</li>
      *   <li>The alternative base sequence of the variant.</li>
@@ -334,14 +401,98 @@ public class Contig extends Attributable {
      * and within the specified location range.
      */
     public ArrayList<Tuple<Integer, String>> getVariantsBySampleAndLocation(String sampleName, int start, int end) {
+        SampleVariantIndex index = sampleIndex.get(sampleName);
+        if (index == null)
+            return new ArrayList<>();
         ArrayList<Tuple<Integer, String>> sampleVariants = new ArrayList<>();
-        this.variants.subMap(start, end + 1).forEach((position, innerMap) ->
-                innerMap.entrySet().stream()
-                        .filter(e -> e.getValue().hasOccurrence(Attributable.sampleOccurrence, sampleName))
-                        .findFirst()
-                        .ifPresent(e -> sampleVariants.add(new Tuple<>(position, e.getKey())))
-        );
+        for (int i = index.lowerBound(start); i < index.size && index.positions[i] <= end; i++)
+            sampleVariants.add(new Tuple<>(index.positions[i], index.alternatives[i]));
         return sampleVariants;
     }
 
+    /**
+     * Returns the positions of the variants of a sample on this contig in ascending order.
+     * <p>
+     * As the per-sample index keeps only one variant per position, all variants at the returned positions
+     * have to be checked for an occurrence in the sample to obtain all of its variants.
+     *
+     * @param sampleName The name of the sample.
+     * @return The sorted positions of the variants of the sample; empty, if the sample has no variants on this contig.
+     */
+    public int[] getVariantPositionsBySample(String sampleName) {
+        SampleVariantIndex index = sampleIndex.get(sampleName);
+        return index == null ? new int[0] : Arrays.copyOf(index.positions, index.size);
+    }
+
+    /**
+     * Position-sorted index of the variants of a single sample on a contig.
+     * <p>
+     * Positions are stored in a primitive {@code int} array in ascending order, alongside the alternative
+     * content of each variant at the same array index. As variant calls are usually added in ascending
+     * order of their position, insertions are mostly appends; otherwise, the insertion point is determined
+     * by binary search.
+     */
+    protected static final class SampleVariantIndex {
+
+        /**
+         * Sorted positions of the variants of the sample.
+         */
+        private int[] positions = new int[16];
+
+        /**
+         * Alternative content of the variants of the sample, aligned with {@link #positions}.
+         */
+        private String[] alternatives = new String[16];
+
+        /**
+         * Number of variants stored in this index.
+         */
+        private int size = 0;
+
+        /**
+         * Adds a variant to this index. If a variant is already stored at the specified position, the
+         * lexicographically smaller alternative content of both is kept.
+         *
+         * @param position         The 1-based position of the variant.
+         * @param alternativeBases The alternative base sequence of the variant.
+         */
+        private void add(int position, String alternativeBases) {
+            int insertionPoint = (size == 0 || positions[size - 1] < position) ? size : lowerBound(position);
+            if (insertionPoint < size && positions[insertionPoint] == position) {
+                if (alternativeBases.compareTo(alternatives[insertionPoint]) < 0)
+                    alternatives[insertionPoint] = alternativeBases;
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                alternatives = Arrays.copyOf(alternatives, size * 2);
+            }
+            System.arraycopy(positions, insertionPoint, positions, insertionPoint + 1, size - insertionPoint);
+            System.arraycopy(alternatives, insertionPoint, alternatives, insertionPoint + 1, size - insertionPoint);
+            positions[insertionPoint] = position;
+            alternatives[insertionPoint] = alternativeBases;
+            size++;
+        }
+
+        /**
+         * Returns the index of the first stored position that is greater than or equal to the specified position.
+         *
+         * @param position The position to search for.
+         * @return The index of the first position {@code >= position}, or {@link #size} if there is none.
+         */
+        private int lowerBound(int position) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (positions[mid] < position)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+    }
+
 }
@@ -162,6 +162,14 @@ public class Feature extends Attributable {
      */
     protected final HashMap<String, Proteoform> proteoforms = new HashMap<>();
 
+    /**
+     * The translated reference sequence of this feature.
+     * <p>
+     * This field is a transient cache of the reference protein sequence used for proteoform inference. It is
+     * computed on first access by {@link #updateProteoform} and is not serialized.
+     */
+    private transient String referenceTranslation;
+
     /**
      * Constructs a new {@link Feature} instance with the specified properties.
      * <p>
@@ -338,11 +346,22 @@ public class Feature extends Attributable {
         if (variants.isEmpty())
             throw new IllegalArgumentException("Variants of an allele can't be empty.");
 
-        // Compute the reference and proteoform sequences.
-        String referenceSequence =
-                SequenceOperations.translateSequence(contig.getSubsequence(start, end), isReverse());
-        String proteoformSequence =
-                SequenceOperations.translateSequence(SequenceOperations.integrateVariants(contig, this, variants, true), isReverse());
+        // Compute the reference and proteoform sequences; alleles with substitutions only are translated codon-locally.
+        if (referenceTranslation == null)
+            referenceTranslation = SequenceOperations.translateSequence(contig.getSubsequence(start, end), isReverse());
+        String referenceSequence = referenceTranslation;
+        boolean substitutionsOnly = variants.entrySet().stream()
+                .allMatch(variant -> contig.getVariantInformation(variant.getKey(), variant.getValue()).type == VariantInformation.Type.SNV);
+        String proteoformSequence;
+        if (substitutionsOnly) {
+            Map<Integer, String> substitutions = new HashMap<>(variants.size());
+            variants.forEach((position, alternative) -> substitutions.put(position - start, alternative));
+            proteoformSequence = SequenceOperations.translateSubstitutedSequence(
+                    contig.getSubsequence(start, end), isReverse(), referenceSequence, substitutions);
+        } else {
+            proteoformSequence = SequenceOperations.translateSequence(
+                    SequenceOperations.integrateVariants(contig, this, variants, true), isReverse());
+        }
 
         /* Generate a unique identifier for the proteoform out of its sequence; if no variants are present, use "synonymous".
          * NOTE: In contrast to alleles, the UID of the proteoform is generated from its sequence to avoid the incorporation of possible
@@ -359,16 +378,22 @@ public class Feature extends Attributable {
             if (this.proteoforms.containsKey(proteoformUid)) {
                 proteoform = getProteoform(proteoformUid);
             } else {
-                // Perform global protein sequence alignment.
-                Tuple<String, String> alignment = SequenceOperations.globalProteinSequenceAlignment(
-                        referenceSequence,
-                        proteoformSequence,
-                        Math.max(referenceSequence.length(), proteoformSequence.length()), // To avoid more gaps than defined by variant's deletions.
-                        6,
-                        SequenceOperations.MarginalGaps.FORBID,
-                        SequenceOperations.MarginalGaps.PENALIZE,
-                        Math.abs(referenceSequence.length() - proteoformSequence.length())
-                );
+                // Perform global protein sequence alignment, unless the sequences are of equal length and the allele has substitutions
+                // only; in this case, the alignment band is empty and the sequences are aligned without gaps.
+                Tuple<String, String> alignment;
+                if (substitutionsOnly && referenceSequence.length() == proteoformSequence.length()) {
+                    alignment = new Tuple<>(referenceSequence, proteoformSequence);
+                } else {
+                    alignment = SequenceOperations.globalProteinSequenceAlignment(
+                            referenceSequence,
+                            proteoformSequence,
+                            Math.max(referenceSequence.length(), proteoformSequence.length()), // To avoid more gaps than defined by variant's deletions.
+                            6,
+                            SequenceOperations.MarginalGaps.FORBID,
+                            SequenceOperations.MarginalGaps.PENALIZE,
+                            Math.abs(referenceSequence.length() - proteoformSequence.length())
+                    );
+                }
 
                 // Extract canonical amino acid variants from the alignment.
                 List<Tuple<Integer, String>> aaVariants = SequenceOperations.getCanonicalVariants(alignment.a, alignment.b).stream()
@@ -589,7 +614,8 @@ public class Feature extends Attributable {
      * This method generates a GFF3 representation of the feature, including its attributes
      * and child features. The main feature is represented with its type, location, strand,
      * and attributes. Child features are appended with their respective types, locations,
-     * and parent-child relationships.
+     * and parent-child relationships. Statistics attributes, which change whenever samples are added, are omitted, so
+     * that the representation only depends on the feature itself.
      *
      * @return A {@link String} containing the GFF3 representation of this feature and its children.
      */
@@ -611,7 +637,9 @@ public class Feature extends Attributable {
         if (hasAttributes()) {
             contentBuilder.append(";%s".formatted(attributesAsString(Set.of(
                     "children", "reference_proportion", "sequence_types_disrupted",
-                    "sequence_types_modified", "sequence_types_synonymous"))));
+                    "sequence_types_modified", "sequence_types_synonymous",
+                    Constants.$Attributable_frequencyReference, Constants.$Attributable_frequencyDisrupted,
+                    Constants.$Feature_numberOfAlleles, Constants.$Feature_numberOfProteoforms))));
         }
         contentBuilder.append(Constants.lineSeparator);
 
@@ -4,6 +4,7 @@ import utility.Constants;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.regex.Pattern;
@@ -102,15 +103,37 @@ public class Sample extends Attributable {
      * <p>
      * This method updates the {@link #alleles} map by setting the sequence type (allele)
      * for the specified feature. The feature is identified by its name, and the allele
-     * is identified by its unique identifier.
+     * is identified by its unique identifier. The method is synchronized, as alleles of
+     * different features may be set concurrently.
      *
      * @param featureName The name of the feature ({@link Feature#name}) to associate with the allele.
      * @param alleleUid   The unique identifier of the allele ({@link SequenceType#name}) to set for the feature.
      */
-    protected void setAllele(String featureName, String alleleUid) {
+    protected synchronized void setAllele(String featureName, String alleleUid) {
         this.alleles.put(featureName, alleleUid);
     }
 
+    /**
+     * Re-inserts the entries of the {@link #alleles} map in the specified order of feature names.
+     * <p>
+     * If alleles are set concurrently, the insertion order into the {@link #alleles} map, and with that its
+     * iteration order, is not deterministic. This method restores the order in which the entries would have
+     * been inserted by a sequential iteration over the features. Entries of features not contained in
+     * {@code featureNames} are appended afterward.
+     *
+     * @param featureNames The names of the features in the order in which the entries should be inserted.
+     */
+    protected synchronized void orderAlleles(Collection<String> featureNames) {
+        LinkedHashMap<String, String> orderedAlleles = new LinkedHashMap<>(this.alleles.size());
+        for (String featureName : featureNames) {
+            if (this.alleles.containsKey(featureName))
+                orderedAlleles.put(featureName, this.alleles.get(featureName));
+        }
+        this.alleles.forEach(orderedAlleles::putIfAbsent);
+        this.alleles.clear();
+        this.alleles.putAll(orderedAlleles);
+    }
+
     /**
      * Retrieves the entries of the alleles map for this sample.
      * <p>
@@ -124,6 +147,16 @@ public class Sample extends Attributable {
         return this.alleles.entrySet();
     }
 
+    /**
+     * Retrieves the unique identifier of the allele of a specific feature in this sample.
+     *
+     * @param featureName The name of the feature ({@link Feature#name}).
+     * @return The unique identifier of the allele of the feature, or {@code null} if no allele is set for the feature.
+     */
+    public String getAllele(String featureName) {
+        return this.alleles.get(featureName);
+    }
+
     /**
      * Retrieves the number of alleles in this sample.
      * <p>
@@ -14,6 +14,7 @@ import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFFileReader;
 import main.Musial;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -25,12 +26,23 @@ import org.biojava.nbio.genome.parsers.gff.GFF3Reader;
 import utility.*;
 
 import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -80,6 +92,9 @@ public class Storage {
      *                                which can save time if annotation is not required.
      * @param skipProteoformInference Whether to skip proteoform inference. If true, the inference of proteoforms
      *                                (protein isoforms) is not performed, which can be useful for non-coding regions.
+     * @param approximateClusteringThreshold The number of alleles or proteoforms of a feature above which these are
+     *                                clustered approximately (see {@link Clustering}). Must be greater than or equal to 0;
+     *                                0 disables approximate clustering.
      * @param excludedPositions       A map associating contig names with sets of positions to exclude from storage. Cannot be null
      *                                but can be empty. This allows specific genomic positions to be ignored during analysis.
      * @param excludedVariants        A map associating contig names with sets of alternative variants to exclude from storage. Cannot
@@ -91,6 +106,7 @@ public class Storage {
             boolean storeFiltered, // Flag to determine whether filtered calls should be retained as ambiguous bases.
             boolean skipSnpEff, // Flag to determine whether SnpEff annotation should be skipped.
             boolean skipProteoformInference, // Flag to determine whether proteoform inference should be skipped.
+            int approximateClusteringThreshold, // Number of sequence types above which these are clustered approximately.
             Map<String, Set<Integer>> excludedPositions, // Map of contig names to sets of positions to exclude from analysis.
             Map<String, Set<String>> excludedVariants // Map of contig names to sets of alternative variants to exclude.
     ) {
@@ -147,7 +163,7 @@ public class Storage {
     /**
      * Transient accessor to the VCF handler.
      */
-    private transient VcfHandler vcfHandler = new VcfHandler();
+    transient VcfHandler vcfHandler = new VcfHandler();
 
     /**
      * Map of sequence ontology (SO) terms and their respective hierarchy levels as used by MUSIAL.
@@ -387,11 +403,23 @@ public class Storage {
                 Logging.logConfig("No value for `skipProteoformInference` specified; defaulting to true.");
             }
 
+            int approximateClusteringThreshold = 0; // Default value
+            if (CLI.parameters.containsKey("approximateClusteringThreshold")) {
+                String value = String.valueOf(CLI.parameters.get("approximateClusteringThreshold"));
+                if (value.matches("^\\d+(\\.0+)?$")) {
+                    approximateClusteringThreshold = (int) Double.parseDouble(value);
+                } else {
+                    Logging.logWarning("Invalid value for `approximateClusteringThreshold`; expected a non-negative integer. Defaulting to 0.");
+                }
+            } else {
+                Logging.logConfig("No value for `approximateClusteringThreshold` specified; defaulting to 0.");
+            }
+
             Map<String, Set<Integer>> excludedPositions = excludedPositionsFromCLI();
             Map<String, Set<String>> excludedVariants = excludedVariantsFromCLI();
 
-            return new Parameters(minimalCoverage, minimalFrequency, storeFiltered, skipSnpEff, skipProteoformInference, excludedPositions,
-                    excludedVariants);
+            return new Parameters(minimalCoverage, minimalFrequency, storeFiltered, skipSnpEff, skipProteoformInference,
+                    approximateClusteringThreshold, excludedPositions, excludedVariants);
         }
 
         /**
@@ -763,6 +791,15 @@ public class Storage {
         return !this.parameters.skipProteoformInference;
     }
 
+    /**
+     * Retrieves the number of alleles or proteoforms of a feature above which these are clustered approximately.
+     *
+     * @return The approximate clustering threshold; 0 if sequence types are always clustered exactly.
+     */
+    public int getApproximateClusteringThreshold() {
+        return this.parameters.approximateClusteringThreshold;
+    }
+
     /**
      * Whether {@code position} is excluded on {@code contig}.
      *
@@ -1023,88 +1060,280 @@ public class Storage {
     /**
      * Updates sequence types for all samples and features in the storage.
      * <p>
-     * This method iterates through all samples that need to be updated and all features in the storage.
-     * For each feature, it retrieves the associated contig and filters the variants for the sample
-     * within the feature's start and end positions. The filtered variants are reduced to a map
-     * containing the variant positions and their corresponding alternative allele base strings.
+     * This method assigns the variants of all samples that need to be updated to the features in the storage
+     * by a single sweep over the variants of each contig (see {@link #bucketVariantsByFeatureAndSample}).
+     * The resulting (feature, sample) buckets contain the variant positions and their corresponding
+     * alternative allele base strings; features or samples without variants do not yield a bucket.
+     * <p>
+     * For each non-empty bucket, the method updates the allele for the feature using the contig, variants,
+     * and sample. If the feature is coding and the contig has a sequence, the proteoform for the feature is
+     * also updated. Samples are processed per feature in the order of {@link #getSamplesToUpdate()}.
      * <p>
-     * If the filtered variants are not empty, the method updates the allele for the feature using
-     * the contig, variants, and sample. If the feature is coding and the contig has a sequence,
-     * the proteoform for the feature is also updated.
+     * If more than one thread is specified by {@link Musial#threads}, features are processed in parallel on a
+     * {@link ForkJoinPool}. As the sequence types of each feature are only modified by a single thread and the
+     * allele assignments of samples are re-ordered by feature afterward, the result does not depend on the
+     * number of threads.
      * <p>
-     * Finally, the method performs HDBSCAN clustering for alleles and proteoforms per feature,
-     * updating their attributes with the clustering results.
+     * Finally, the method performs HDBSCAN clustering for alleles and proteoforms per feature (see
+     * {@link #clusterSequenceTypes}), updating their attributes with the clustering results. Each feature is
+     * clustered with its own {@link Clustering} instances, so features are clustered in parallel as well if more
+     * than one thread is specified. Only features that gained novel alleles or proteoforms in this update are
+     * re-clustered; as the clustering only depends on the variants of the sequence types of a feature, the labels,
+     * indices and outlier scores of all other features remain valid.
      *
      * @throws IOException     If an error occurs during sequence processing.
      * @throws MusialException If an error occurs during allele or proteoform updates.
      */
     public void updateSequenceTypes() throws IOException, MusialException {
-        // Iterate through all samples that need to be updated.
-        for (Sample sample : getSamplesToUpdate()) {
-            // Iterate through all features in the storage.
-            for (Feature feature : getFeatures()) {
-                // Retrieve the contig associated with the feature.
-                Contig contig = getContig(feature.contig);
-                // Filter variants for the sample within the feature's start and end positions.
-                ArrayList<Tuple<Integer, String>> variants = contig.getVariantsBySampleAndLocation(sample.name, feature.start, feature.end);
-                if (variants.isEmpty()) continue; // Skip if no variants are found.
-                // Update allele information for the feature with respect to the sample.
-                String alleleUid = feature.updateAllele(contig, variants, sample);
-                // If the feature is coding and the contig has a sequence, update the proteoform.
-                if (feature.isCoding() && contig.hasSequence() && runProteoformInference()) {
-                    feature.updateProteoform(contig, alleleUid);
-                }
+        // Assign each sample that needs to be updated an ordinal to bucket its variants by.
+        List<Sample> samplesToUpdate = new ArrayList<>(getSamplesToUpdate());
+        HashMap<String, Integer> sampleOrdinals = new HashMap<>(samplesToUpdate.size());
+        for (int i = 0; i < samplesToUpdate.size(); i++)
+            sampleOrdinals.put(samplesToUpdate.get(i).name, i);
+
+        // Bucket the variants of all samples by feature and sample with one sweep per contig.
+        HashMap<Feature, TreeMap<Integer, ArrayList<Tuple<Integer, String>>>> buckets = new HashMap<>();
+        for (Contig contig : getContigs())
+            bucketVariantsByFeatureAndSample(contig, sampleOrdinals, buckets);
+
+        // Update the sequence types of all features with at least one non-empty bucket.
+        // Features that gained novel alleles or proteoforms are collected for re-clustering.
+        List<Feature> featuresToUpdate = getFeatures().stream().filter(buckets::containsKey).toList();
+        Set<Feature> featuresWithNovelSequenceTypes = ConcurrentHashMap.newKeySet();
+        if (Musial.threads > 1 && featuresToUpdate.size() > 1) {
+            invokeConcurrently(featuresToUpdate.stream()
+                    .map(feature -> (Callable<Void>) () -> {
+                        if (updateSequenceTypes(feature, buckets.get(feature), samplesToUpdate))
+                            featuresWithNovelSequenceTypes.add(feature);
+                        return null;
+                    }).toList(), "Sequence type inference");
+        } else {
+            for (Feature feature : featuresToUpdate)
+                if (updateSequenceTypes(feature, buckets.get(feature), samplesToUpdate))
+                    featuresWithNovelSequenceTypes.add(feature);
+        }
+
+        // Restore the order of the allele assignments of the updated samples wrt. the features.
+        samplesToUpdate.forEach(sample -> sample.orderAlleles(features.keySet()));
+
+        // Perform clustering for alleles and proteoforms per feature with novel sequence types; the clustering results of
+        // all other features are kept, as their datasets did not change. Features are clustered concurrently, if specified.
+        List<Feature> featuresToCluster = getFeatures().stream().filter(featuresWithNovelSequenceTypes::contains).toList();
+        if (Musial.threads > 1 && featuresToCluster.size() > 1) {
+            // Each concurrently clustered feature uses a single trainer thread, so that the thread limit is kept.
+            invokeConcurrently(featuresToCluster.stream()
+                    .map(feature -> (Callable<Void>) () -> {
+                        clusterSequenceTypes(feature, 1);
+                        return null;
+                    }).toList(), "Sequence type clustering");
+        } else {
+            for (Feature feature : featuresToCluster)
+                clusterSequenceTypes(feature, Musial.threads);
+        }
+    }
+
+    /**
+     * Runs the specified tasks on a {@link ForkJoinPool} with {@link Musial#threads} threads and waits for all of them.
+     * <p>
+     * Checked exceptions of tasks run on a fork-join pool are wrapped into a {@link RuntimeException}; the first failed
+     * task's {@link IOException} or {@link MusialException} is unwrapped and re-thrown.
+     *
+     * @param tasks       The tasks to run.
+     * @param description A description of the tasks used for error messages.
+     * @throws IOException     If a task failed with an {@link IOException}.
+     * @throws MusialException If a task failed with a {@link MusialException} or was interrupted.
+     */
+    private static void invokeConcurrently(List<Callable<Void>> tasks, String description) throws IOException, MusialException {
+        ForkJoinPool pool = new ForkJoinPool(Musial.threads);
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MusialException("%s was interrupted.".formatted(description));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException && (cause.getCause() instanceof IOException || cause.getCause() instanceof MusialException))
+                cause = cause.getCause();
+            switch (cause) {
+                case IOException ioException -> throw ioException;
+                case MusialException musialException -> throw musialException;
+                case RuntimeException runtimeException -> throw runtimeException;
+                default -> throw new MusialException("%s failed; %s".formatted(description, cause.getMessage()));
             }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Performs HDBSCAN clustering of the alleles and, if the feature is coding and proteoform inference is enabled,
+     * the proteoforms of a single feature and updates their attributes and names with the clustering results.
+     * <p>
+     * Each invocation uses its own {@link Clustering} instances and only modifies the sequence types of the specified
+     * feature; hence, it is safe to be run concurrently for distinct features.
+     * <p>
+     * If a feature has more alleles (proteoforms) than the approximate clustering threshold, these are clustered
+     * approximately and each of them is marked with the {@link Constants#$SequenceType_clusterApproximate} attribute.
+     *
+     * @param feature        The {@link Feature} whose sequence types are clustered.
+     * @param trainerThreads The number of threads used by each HDBSCAN trainer.
+     */
+    private void clusterSequenceTypes(Feature feature, int trainerThreads) {
+        // Add alleles to the dataset.
+        Clustering alleleClustering = new Clustering(getApproximateClusteringThreshold(), trainerThreads);
+        feature.getAlleles().forEach(allele ->
+                alleleClustering.addToDataset(allele.uid, allele.getVariants())
+        );
+
+        if (alleleClustering.hasData()) {
+            // Train the clustering model.
+            alleleClustering.train();
+
+            // Process clustering results for alleles.
+            alleleClustering.getClusteringResult().forEach(entry -> {
+                // Retrieve the allele by its name and update its attributes with clustering results.
+                Feature.Allele allele = feature.getAllele(entry.name());
+                allele.setAttribute(Constants.$SequenceType_clusterLabel, String.valueOf(entry.label()));
+                allele.setAttribute(Constants.$SequenceType_clusterIndex, String.valueOf(entry.idx()));
+                allele.setAttribute(Constants.$SequenceType_clusterOutlierScore, String.format(Locale.US, "%.3f", entry.outlierScore()));
+                if (alleleClustering.isApproximate())
+                    allele.setAttribute(Constants.$SequenceType_clusterApproximate, "true");
+                else
+                    allele.removeAttribute(Constants.$SequenceType_clusterApproximate);
+                // Update the allele's name to include clustering information.
+                allele.setName("%s.a%s.%s".formatted(feature.name, entry.label(), entry.idx()));
+            });
         }
 
-        // Perform clustering for alleles and proteoforms per feature.
-        for (Feature feature : getFeatures()) {
-            // Reset clustering and add alleles to the dataset.
-            Clustering.reset();
-            feature.getAlleles().forEach(allele ->
-                    Clustering.addToDataset(allele.uid, allele.getVariants())
+        // If the feature is coding, process proteoforms.
+        if (feature.isCoding() && runProteoformInference()) {
+            // Add proteoforms to the dataset.
+            Clustering proteoformClustering = new Clustering(getApproximateClusteringThreshold(), trainerThreads);
+            feature.getProteoforms().forEach(proteoform ->
+                    proteoformClustering.addToDataset(proteoform.uid, proteoform.getVariants())
             );
 
-            if (Clustering.hasData()) {
+            if (proteoformClustering.hasData()) {
                 // Train the clustering model.
-                Clustering.train();
-
-                // Process clustering results for alleles.
-                Clustering.getClusteringResult().forEach(entry -> {
-                    // Retrieve the allele by its name and update its attributes with clustering results.
-                    Feature.Allele allele = feature.getAllele(entry.name());
-                    allele.setAttribute(Constants.$SequenceType_clusterLabel, String.valueOf(entry.label()));
-                    allele.setAttribute(Constants.$SequenceType_clusterIndex, String.valueOf(entry.idx()));
-                    allele.setAttribute(Constants.$SequenceType_clusterOutlierScore, String.format(Locale.US, "%.3f", entry.outlierScore()));
-                    // Update the allele's name to include clustering information.
-                    allele.setName("%s.a%s.%s".formatted(feature.name, entry.label(), entry.idx()));
+                proteoformClustering.train();
+
+                // Process clustering results for proteoforms.
+                proteoformClustering.getClusteringResult().forEach(entry -> {
+                    // Retrieve the proteoform by its name and update its attributes with clustering results.
+                    Feature.Proteoform proteoform = feature.getProteoform(entry.name());
+                    proteoform.setAttribute(Constants.$SequenceType_clusterLabel, String.valueOf(entry.label()));
+                    proteoform.setAttribute(Constants.$SequenceType_clusterIndex, String.valueOf(entry.idx()));
+                    proteoform.setAttribute(Constants.$SequenceType_clusterOutlierScore, String.format(Locale.US, "%.3f", entry.outlierScore()));
+                    if (proteoformClustering.isApproximate())
+                        proteoform.setAttribute(Constants.$SequenceType_clusterApproximate, "true");
+                    else
+                        proteoform.removeAttribute(Constants.$SequenceType_clusterApproximate);
+                    // Update the proteoform's name to include clustering information.
+                    proteoform.setName("%s.p%s.%s".formatted(feature.name, entry.label(), entry.idx()));
                 });
             }
+        }
+    }
+
+    /**
+     * Updates the alleles and proteoforms of a single feature from its (feature, sample) buckets.
+     * <p>
+     * For each bucket, in ascending order of the sample ordinals, the allele of the sample is updated. If the
+     * feature is coding and the contig has a sequence, the proteoform of the allele is also updated. This method
+     * only modifies the sequence types of the specified feature and is safe to be run concurrently for distinct
+     * features.
+     *
+     * @param feature         The {@link Feature} to update.
+     * @param featureBuckets  A map of sample ordinals to the variants of the sample within the location of the feature.
+     * @param samplesToUpdate The samples to update, indexed by their ordinal.
+     * @return {@code true} if the feature gained novel alleles or proteoforms, {@code false} otherwise.
+     * @throws IOException     If an error occurs during sequence processing.
+     * @throws MusialException If an error occurs during allele or proteoform updates.
+     */
+    private boolean updateSequenceTypes(Feature feature, TreeMap<Integer, ArrayList<Tuple<Integer, String>>> featureBuckets,
+                                        List<Sample> samplesToUpdate) throws IOException, MusialException {
+        int alleleCount = feature.getAlleleCount();
+        int proteoformCount = feature.getProteoformCount();
+        // Retrieve the contig associated with the feature.
+        Contig contig = getContig(feature.contig);
+        for (Map.Entry<Integer, ArrayList<Tuple<Integer, String>>> bucket : featureBuckets.entrySet()) {
+            // Update allele information for the feature with respect to the sample.
+            String alleleUid = feature.updateAllele(contig, bucket.getValue(), samplesToUpdate.get(bucket.getKey()));
+            // If the feature is coding and the contig has a sequence, update the proteoform.
+            if (feature.isCoding() && contig.hasSequence() && runProteoformInference()) {
+                feature.updateProteoform(contig, alleleUid);
+            }
+        }
+        return feature.getAlleleCount() != alleleCount || feature.getProteoformCount() != proteoformCount;
+    }
+
+    /**
+     * Assigns the variants of a contig to (feature, sample) buckets by a single sweep in position order.
+     * <p>
+     * This method walks the {@link Contig#variants} map of the specified contig once in ascending position order,
+     * while the features located on the contig are kept as a set of active intervals, i.e., features whose location
+     * covers the current position. Positions before the next feature start that are not covered by any active feature
+     * are skipped. Each variant of a sample specified in {@code sampleOrdinals} is appended to the bucket of each
+     * active feature for that sample. As in {@link Contig#getVariantsBySampleAndLocation}, at most one variant per
+     * sample and position is assigned, i.e., the one with the lexicographically smallest alternative content.
+     *
+     * @param contig         The {@link Contig} whose variants are assigned.
+     * @param sampleOrdinals A map of the names of the samples to consider to their ordinal, used as bucket keys.
+     * @param buckets        The map to which the buckets are added; per feature, the ordinal of each sample is mapped to
+     *                       its variants within the location of the feature in ascending position order.
+     */
+    void bucketVariantsByFeatureAndSample(Contig contig, Map<String, Integer> sampleOrdinals,
+                                          Map<Feature, TreeMap<Integer, ArrayList<Tuple<Integer, String>>>> buckets) {
+        // Collect the features located on the contig, sorted by their start position.
+        List<Feature> contigFeatures = getFeatures().stream()
+                .filter(feature -> feature.contig.equals(contig.name))
+                .sorted(Comparator.comparingInt(feature -> feature.start))
+                .toList();
+        if (contigFeatures.isEmpty() || sampleOrdinals.isEmpty())
+            return;
+
+        List<Feature> activeFeatures = new ArrayList<>();
+        HashMap<Integer, String> sampleAlternatives = new HashMap<>();
+        int nextFeature = 0;
+        Map.Entry<Integer, Map<String, VariantInformation>> positionEntry = contig.variants.ceilingEntry(contigFeatures.getFirst().start);
+        while (positionEntry != null) {
+            int position = positionEntry.getKey();
+
+            // Update the active features wrt. the current position.
+            while (nextFeature < contigFeatures.size() && contigFeatures.get(nextFeature).start <= position)
+                activeFeatures.add(contigFeatures.get(nextFeature++));
+            activeFeatures.removeIf(feature -> feature.end < position);
+
+            // Skip to the next feature start, if no feature covers the current position.
+            if (activeFeatures.isEmpty()) {
+                if (nextFeature == contigFeatures.size())
+                    break;
+                positionEntry = contig.variants.ceilingEntry(contigFeatures.get(nextFeature).start);
+                continue;
+            }
 
-            // If the feature is coding, process proteoforms.
-            if (feature.isCoding() && runProteoformInference()) {
-                // Reset clustering and add proteoforms to the dataset.
-                Clustering.reset();
-                feature.getProteoforms().forEach(proteoform ->
-                        Clustering.addToDataset(proteoform.uid, proteoform.getVariants())
-                );
-
-                if (Clustering.hasData()) {
-                    // Train the clustering model.
-                    Clustering.train();
-
-                    // Process clustering results for proteoforms.
-                    Clustering.getClusteringResult().forEach(entry -> {
-                        // Retrieve the proteoform by its name and update its attributes with clustering results.
-                        Feature.Proteoform proteoform = feature.getProteoform(entry.name());
-                        proteoform.setAttribute(Constants.$SequenceType_clusterLabel, String.valueOf(entry.label()));
-                        proteoform.setAttribute(Constants.$SequenceType_clusterIndex, String.valueOf(entry.idx()));
-                        proteoform.setAttribute(Constants.$SequenceType_clusterOutlierScore, String.format(Locale.US, "%.3f", entry.outlierScore()));
-                        // Update the proteoform's name to include clustering information.
-                        proteoform.setName("%s.p%s.%s".formatted(feature.name, entry.label(), entry.idx()));
-                    });
+            // Determine the alternative content of each sample at the current position; the lexicographically smallest
+            // one is kept, independent of the iteration order of the variants.
+            sampleAlternatives.clear();
+            for (Map.Entry<String, VariantInformation> variantEntry : positionEntry.getValue().entrySet()) {
+                for (String sampleName : variantEntry.getValue().getSampleOccurrence()) {
+                    Integer ordinal = sampleOrdinals.get(sampleName);
+                    if (ordinal != null)
+                        sampleAlternatives.merge(ordinal, variantEntry.getKey(), (a, b) -> a.compareTo(b) <= 0 ? a : b);
                 }
             }
+
+            // Assign the variants at the current position to the buckets of all active features.
+            for (Map.Entry<Integer, String> sampleAlternative : sampleAlternatives.entrySet()) {
+                Tuple<Integer, String> variant = new Tuple<>(position, sampleAlternative.getValue());
+                for (Feature feature : activeFeatures) {
+                    buckets.computeIfAbsent(feature, k -> new TreeMap<>())
+                            .computeIfAbsent(sampleAlternative.getKey(), k -> new ArrayList<>())
+                            .add(variant);
+                }
+            }
+            positionEntry = contig.variants.higherEntry(position);
         }
     }
 
@@ -1118,148 +1347,329 @@ public class Storage {
      *   <li>Updates variant frequency for each contig and aggregates substitution and indel counts per sample.</li>
      *   <li>Calculates and updates allelic frequencies, reference frequencies, and proteoform statistics for each feature.</li>
      * </ul>
+     * The statistics are computed in a single pass over the data with primitive accumulators: first, one task per
+     * sample and one task per contig, whose per-sample substitution and indel counts are summed afterward; second, one
+     * task per feature. Each task only modifies attributes of its own sample, contig or feature; tasks of one stage are
+     * run concurrently, if specified by {@link Musial#threads}.
+     * <p>
+     * If {@code incremental} is set, only the statistics of the samples that were updated (see
+     * {@link #getSamplesToUpdate()}) or have no statistics yet are computed. The statistics of a sample only depend on
+     * its own variant calls, alleles and variants, as well as on the (fixed) number of features; hence, the statistics
+     * of all other samples remain valid. Their substitutions and indels are counted from the per-sample variant index
+     * of each contig instead of the occurrences of all variants. Variant and sequence type frequencies are always
+     * recomputed from the persisted occurrence counts, as the number of samples changed. Otherwise, the statistics of
+     * all samples are recomputed; this serves as a verification mode, i.e., deviations of recomputed from stored
+     * statistics of samples that were not updated are reported.
+     *
+     * @param incremental Whether to only compute the statistics of updated samples.
+     * @throws IOException     If a statistics task fails.
+     * @throws MusialException If a statistics task fails or is interrupted.
      */
-    public void updateStatistics() {
+    public void updateStatistics(boolean incremental) throws IOException, MusialException {
         // Count the number of coding features in the storage.
         float noCodingFeatures = features.values().stream().filter(Feature::isCoding).count();
+        int sampleCount = samples.size();
+
+        // Collect the disrupted proteoforms, i.e., with a start_lost or stop_gained effect, of each coding feature once.
+        Map<String, Set<String>> disruptedProteoforms = new HashMap<>();
+        if (!parameters.skipProteoformInference()) {
+            for (Feature feature : features.values()) {
+                if (!feature.isCoding())
+                    continue;
+                Set<String> disrupted = new HashSet<>();
+                for (SequenceType proteoform : feature.getProteoforms()) {
+                    Collection<String> effects = proteoform.getAttributeAsCollection(Constants.$SequenceType_effects);
+                    if (effects.contains("start_lost") || effects.contains("stop_gained"))
+                        disrupted.add(proteoform.uid);
+                }
+                disruptedProteoforms.put(feature.name, disrupted);
+            }
+        }
 
-        // Initialize maps to store substitution and indel counts per sample.
-        Map<String, Integer> perSampleSubstitutions = new HashMap<>();
-        Map<String, Integer> perSampleInDels = new HashMap<>();
-
-        // Iterate over each sample to calculate and update sample-specific statistics.
+        // Determine the samples whose statistics are computed; store the statistics of all others for verification.
+        Set<String> updatedSamples = getSamplesToUpdate().stream().map(sample -> sample.name).collect(Collectors.toSet());
+        List<Sample> sampleList = new ArrayList<>(sampleCount);
+        Map<String, List<String>> storedStatistics = new HashMap<>();
         for (Sample sample : samples.values()) {
-            int totalCalls = 0, filteredCalls = 0;
-            List<Integer> coverages = new ArrayList<>(), qualities = new ArrayList<>();
-            perSampleSubstitutions.put(sample.name, 0);
-            perSampleInDels.put(sample.name, 0);
-
-            // Process variant calls for the sample to calculate coverage and quality statistics.
-            for (Map<Integer, String> variantCalls : sample.variantCalls.values()) {
-                totalCalls += variantCalls.size();
-                for (String variantCall : variantCalls.values()) {
-                    String[] callParts = variantCall.split(Constants.SEMICOLON);
-                    coverages.add(Integer.parseInt(callParts[1]));
-                    if (variantCall.startsWith(Constants.lowCoverageCallPrefix) || variantCall.startsWith(Constants.lowFrequencyCallPrefix)) {
-                        filteredCalls++;
-                    } else {
-                        qualities.add(Integer.parseInt(callParts[2]));
-                    }
-                }
+            boolean hasStatistics = sample.hasAttribute(Constants.$Sample_numberOfCalls);
+            if (!hasStatistics || updatedSamples.contains(sample.name))
+                sampleList.add(sample);
+            else if (!incremental) {
+                sampleList.add(sample);
+                storedStatistics.put(sample.name, sampleStatistics(sample));
             }
+        }
 
-            // Update sample attributes with calculated statistics.
-            sample.setAttribute(Constants.$Sample_numberOfCalls, String.valueOf(totalCalls));
-            sample.setAttribute(Constants.$Sample_numberOfFiltered, String.valueOf(filteredCalls));
-            sample.setAttribute(Constants.$Sample_meanCoverage,
-                    IO.formatNumber(coverages.stream().mapToInt(Integer::intValue).average().orElse(0))
-            );
-            sample.setAttribute(Constants.$Sample_meanQuality,
-                    IO.formatNumber(qualities.stream().mapToInt(Integer::intValue).average().orElse(0))
-            );
-            sample.setAttribute(Constants.$Attributable_frequencyReference,
-                    IO.formatFrequency(1 - (sample.getAlleleCount() / (float) features.size())));
-
-            // Calculate proteoform statistics for coding features if proteoform inference is not skipped.
-            if (!parameters.skipProteoformInference()) {
-                int disrupted = 0;
-                for (var entry : sample.alleles.entrySet()) {
-                    Feature feature = getFeature(entry.getKey());
-                    if (feature.isCoding()) {
-                        String proteoformUid = feature.getAllele(entry.getValue()).getAttribute(Constants.$Allele_proteoform);
-                        if (!Constants.synonymous.equals(proteoformUid)) {
-                            var effects = feature.getProteoform(proteoformUid).getAttributeAsCollection(Constants.$SequenceType_effects);
-                            if (effects.contains("start_lost") || effects.contains("stop_gained")) {
-                                disrupted++;
-                            }
-                        }
-                    }
+        // Assign ordinals to samples to aggregate substitution and indel counts per contig in primitive arrays.
+        HashMap<String, Integer> sampleOrdinals = new HashMap<>(sampleList.size() * 2);
+        for (int i = 0; i < sampleList.size(); i++)
+            sampleOrdinals.put(sampleList.get(i).name, i);
+
+        // Compute sample and variant statistics.
+        List<Contig> contigList = new ArrayList<>(contigs.values());
+        int[][] substitutions = new int[incremental ? 0 : contigList.size()][sampleList.size()];
+        int[][] inDels = new int[incremental ? 0 : contigList.size()][sampleList.size()];
+        List<Callable<Void>> tasks = new ArrayList<>(sampleList.size() + contigList.size());
+        for (Sample sample : sampleList)
+            tasks.add(() -> {
+                updateSampleStatistics(sample, disruptedProteoforms, noCodingFeatures);
+                if (incremental)
+                    updateSampleVariantCounts(sample);
+                return null;
+            });
+        for (int i = 0; i < contigList.size(); i++) {
+            int contigIndex = i;
+            tasks.add(() -> {
+                if (incremental)
+                    updateVariantStatistics(contigList.get(contigIndex), null, null, null);
+                else
+                    updateVariantStatistics(contigList.get(contigIndex), sampleOrdinals, substitutions[contigIndex], inDels[contigIndex]);
+                return null;
+            });
+        }
+        invokeStatisticsTasks(tasks);
+
+        // Update sample attributes with aggregated substitution and indel counts.
+        if (!incremental) {
+            for (int i = 0; i < sampleList.size(); i++) {
+                int sampleSubstitutions = 0, sampleInDels = 0;
+                for (int j = 0; j < contigList.size(); j++) {
+                    sampleSubstitutions += substitutions[j][i];
+                    sampleInDels += inDels[j][i];
                 }
-                sample.setAttribute(Constants.$Attributable_frequencyDisrupted,
-                        IO.formatFrequency(disrupted / noCodingFeatures)
-                );
+                sampleList.get(i).setAttribute(Constants.$Sample_numberOfSubstitutions, String.valueOf(sampleSubstitutions));
+                sampleList.get(i).setAttribute(Constants.$Sample_numberOfIndels, String.valueOf(sampleInDels));
             }
+            // Report deviations of stored statistics.
+            storedStatistics.forEach((sampleName, statistics) -> {
+                if (!statistics.equals(sampleStatistics(samples.get(sampleName))))
+                    Logging.logWarning("Stored statistics of sample %s deviate from recomputed statistics; updated."
+                            .formatted(sampleName));
+            });
         }
 
-        // Update variant frequency and aggregate substitution/indel counts for each contig.
+        // Compute feature and sequence type statistics.
+        tasks.clear();
+        for (Feature feature : features.values())
+            tasks.add(() -> {
+                updateFeatureStatistics(feature, disruptedProteoforms.get(feature.name), sampleCount);
+                return null;
+            });
+        invokeStatisticsTasks(tasks);
+    }
+
+    /**
+     * Collects the values of the statistics attributes of a sample, as set by {@link #updateStatistics(boolean)}.
+     *
+     * @param sample The {@link Sample} to collect the statistics of.
+     * @return The values of the statistics attributes; null for missing attributes.
+     */
+    private static List<String> sampleStatistics(Sample sample) {
+        return Arrays.asList(
+                sample.getAttribute(Constants.$Sample_numberOfCalls),
+                sample.getAttribute(Constants.$Sample_numberOfFiltered),
+                sample.getAttribute(Constants.$Sample_meanCoverage),
+                sample.getAttribute(Constants.$Sample_meanQuality),
+                sample.getAttribute(Constants.$Attributable_frequencyReference),
+                sample.getAttribute(Constants.$Attributable_frequencyDisrupted),
+                sample.getAttribute(Constants.$Sample_numberOfSubstitutions),
+                sample.getAttribute(Constants.$Sample_numberOfIndels)
+        );
+    }
+
+    /**
+     * Counts the substitutions and indels of a single sample from the per-sample variant index of each contig.
+     * <p>
+     * All variants at the indexed positions of the sample are checked for an occurrence in the sample, so that the
+     * counts equal those of a sweep over the occurrences of all variants.
+     *
+     * @param sample The {@link Sample} to update.
+     */
+    private void updateSampleVariantCounts(Sample sample) {
+        int substitutions = 0, inDels = 0;
         for (Contig contig : contigs.values()) {
-            contig.variants.forEach((position, innerMap) -> innerMap.forEach((altBases, variantInfo) -> {
-                int sampleCount = variantInfo.getSampleOccurrence().size();
-                variantInfo.setAttribute(Constants.$VariantInformation_frequency,
-                        IO.formatFrequency(sampleCount / (float) samples.size())
-                );
-
-                variantInfo.getSampleOccurrence().forEach(sampleName -> {
-                    Map<String, Integer> targetMap = switch (variantInfo.type) {
-                        case SNV -> perSampleSubstitutions;
-                        case INSERTION, DELETION -> perSampleInDels;
-                    };
-                    targetMap.put(sampleName, targetMap.get(sampleName) + 1);
-                });
-            }));
+            for (int position : contig.getVariantPositionsBySample(sample.name)) {
+                for (VariantInformation variantInformation : contig.variants.get(position).values()) {
+                    if (!variantInformation.getSampleOccurrence().contains(sample.name))
+                        continue;
+                    switch (variantInformation.type) {
+                        case SNV -> substitutions++;
+                        case INSERTION, DELETION -> inDels++;
+                    }
+                }
+            }
         }
+        sample.setAttribute(Constants.$Sample_numberOfSubstitutions, String.valueOf(substitutions));
+        sample.setAttribute(Constants.$Sample_numberOfIndels, String.valueOf(inDels));
+    }
 
-        // Update sample attributes with aggregated substitution and indel counts.
-        perSampleSubstitutions.forEach((sample, count) -> samples.get(sample)
-                .setAttribute(Constants.$Sample_numberOfSubstitutions, String.valueOf(count)));
-        perSampleInDels.forEach((sample, count) -> samples.get(sample)
-                .setAttribute(Constants.$Sample_numberOfIndels, String.valueOf(count)));
+    /**
+     * Runs the specified statistics tasks; concurrently via {@link #invokeConcurrently(List, String)}, if specified by
+     * {@link Musial#threads}, otherwise sequentially in order.
+     *
+     * @param tasks The tasks to run.
+     * @throws IOException     If a task failed with an {@link IOException}.
+     * @throws MusialException If a task failed with any other exception or was interrupted.
+     */
+    private static void invokeStatisticsTasks(List<Callable<Void>> tasks) throws IOException, MusialException {
+        if (Musial.threads > 1 && tasks.size() > 1) {
+            invokeConcurrently(tasks, "Computation of statistics");
+            return;
+        }
+        for (Callable<Void> task : tasks) {
+            try {
+                task.call();
+            } catch (IOException | MusialException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new MusialException("Computation of statistics failed; %s".formatted(e.getMessage()));
+            }
+        }
+    }
 
-        // Initialize a map to store proteoform occurrences for each feature.
-        Map<String, Integer> perProteoformOccurrence = new HashMap<>();
+    /**
+     * Computes the call, coverage, quality, reference and disruption statistics of a single sample.
+     * <p>
+     * The depth and genotype quality of each call ({@code CALL_INDEX;DP;GQ;...}) are parsed in place and summed up;
+     * the means equal those of the previously collected values.
+     *
+     * @param sample               The {@link Sample} to update.
+     * @param disruptedProteoforms The disrupted proteoforms per coding feature; empty if proteoform inference is skipped.
+     * @param noCodingFeatures     The number of coding features in the storage.
+     */
+    private void updateSampleStatistics(Sample sample, Map<String, Set<String>> disruptedProteoforms, float noCodingFeatures) {
+        int totalCalls = 0, filteredCalls = 0, qualityCount = 0;
+        long coverageSum = 0, qualitySum = 0;
+
+        // Process variant calls for the sample to calculate coverage and quality statistics.
+        for (Map<Integer, String> variantCalls : sample.variantCalls.values()) {
+            totalCalls += variantCalls.size();
+            for (String variantCall : variantCalls.values()) {
+                int coverageStart = variantCall.indexOf(';') + 1;
+                int qualityStart = variantCall.indexOf(';', coverageStart) + 1;
+                int qualityEnd = variantCall.indexOf(';', qualityStart);
+                coverageSum += Integer.parseInt(variantCall, coverageStart, qualityStart - 1, 10);
+                if (variantCall.startsWith(Constants.lowCoverageCallPrefix) || variantCall.startsWith(Constants.lowFrequencyCallPrefix)) {
+                    filteredCalls++;
+                } else {
+                    qualitySum += Integer.parseInt(variantCall, qualityStart, qualityEnd == -1 ? variantCall.length() : qualityEnd, 10);
+                    qualityCount++;
+                }
+            }
+        }
 
-        // Iterate over each feature to calculate and update feature-specific statistics.
-        for (Feature feature : features.values()) {
-            float nonReferenceOccurrence = 0;
+        // Update sample attributes with calculated statistics.
+        sample.setAttribute(Constants.$Sample_numberOfCalls, String.valueOf(totalCalls));
+        sample.setAttribute(Constants.$Sample_numberOfFiltered, String.valueOf(filteredCalls));
+        sample.setAttribute(Constants.$Sample_meanCoverage,
+                IO.formatNumber(totalCalls == 0 ? 0 : (double) coverageSum / totalCalls)
+        );
+        sample.setAttribute(Constants.$Sample_meanQuality,
+                IO.formatNumber(qualityCount == 0 ? 0 : (double) qualitySum / qualityCount)
+        );
+        sample.setAttribute(Constants.$Attributable_frequencyReference,
+                IO.formatFrequency(1 - (sample.getAlleleCount() / (float) features.size())));
+
+        // Calculate proteoform statistics for coding features if proteoform inference is not skipped.
+        if (!parameters.skipProteoformInference()) {
             int disrupted = 0;
-            perProteoformOccurrence.clear();
-
-            // Process alleles for the feature to calculate allelic frequencies and proteoform statistics.
-            for (SequenceType allele : feature.getAlleles()) {
-                int alleleOccurrence = allele.getCount();
-                allele.setAttribute(Constants.$SequenceType_frequency,
-                        IO.formatFrequency(alleleOccurrence / (float) samples.size())
-                );
-                nonReferenceOccurrence += alleleOccurrence;
-
-                if (!parameters.skipProteoformInference() && feature.isCoding()) {
-                    String proteoformUid = allele.getAttribute(Constants.$Allele_proteoform);
-                    if (!Objects.equals(proteoformUid, Constants.synonymous)) {
-                        Collection<String> effects = feature.getProteoform(proteoformUid).getAttributeAsCollection(Constants.$SequenceType_effects);
-                        if (effects.contains("start_lost") || effects.contains("stop_gained")) {
-                            disrupted++;
-                        }
-                        perProteoformOccurrence.merge(proteoformUid, alleleOccurrence, Integer::sum);
-                    }
-                }
+            for (var entry : sample.alleles.entrySet()) {
+                Set<String> featureDisruptedProteoforms = disruptedProteoforms.get(entry.getKey());
+                if (Objects.nonNull(featureDisruptedProteoforms) && featureDisruptedProteoforms.contains(
+                        getFeature(entry.getKey()).getAllele(entry.getValue()).getAttribute(Constants.$Allele_proteoform)))
+                    disrupted++;
             }
+            sample.setAttribute(Constants.$Attributable_frequencyDisrupted,
+                    IO.formatFrequency(disrupted / noCodingFeatures)
+            );
+        }
+    }
 
-            // Update feature attributes with calculated statistics.
-            feature.setAttribute(Constants.$Attributable_frequencyReference,
-                    IO.formatFrequency(1 - (nonReferenceOccurrence / samples.size()))
+    /**
+     * Computes the frequency of each variant of a single contig and counts the substitutions and indels per sample.
+     *
+     * @param contig         The {@link Contig} whose variants are updated.
+     * @param sampleOrdinals The ordinal of each sample; null if substitutions and indels are not counted.
+     * @param substitutions  The number of substitutions per sample ordinal on the contig; incremented by this method.
+     * @param inDels         The number of insertions and deletions per sample ordinal on the contig; incremented by this
+     *                       method.
+     */
+    private void updateVariantStatistics(Contig contig, Map<String, Integer> sampleOrdinals, int[] substitutions, int[] inDels) {
+        float sampleCount = samples.size();
+        contig.variants.forEach((position, innerMap) -> innerMap.forEach((altBases, variantInfo) -> {
+            Collection<String> sampleOccurrence = variantInfo.getSampleOccurrence();
+            variantInfo.setAttribute(Constants.$VariantInformation_frequency,
+                    IO.formatFrequency(sampleOccurrence.size() / sampleCount)
             );
-            feature.setAttribute(Constants.$Feature_numberOfAlleles, String.valueOf(feature.getAlleleCount()));
+            if (Objects.isNull(sampleOrdinals))
+                return;
+            int[] counts = switch (variantInfo.type) {
+                case SNV -> substitutions;
+                case INSERTION, DELETION -> inDels;
+            };
+            for (String sampleName : sampleOccurrence)
+                counts[sampleOrdinals.get(sampleName)]++;
+        }));
+    }
 
-            if (!parameters.skipProteoformInference() && feature.isCoding()) {
-                int proteoformCount = feature.getProteoformCount();
-                float disruptedFrequency = proteoformCount == 0 ? 0 : disrupted / (float) proteoformCount;
-                feature.setAttribute(Constants.$Attributable_frequencyDisrupted,
-                        IO.formatFrequency(disruptedFrequency)
-                );
-                feature.setAttribute(Constants.$Feature_numberOfProteoforms, String.valueOf(feature.getProteoformCount()));
-                perProteoformOccurrence.forEach((proteoformUid, count) ->
-                        feature.getProteoform(proteoformUid).setAttribute(Constants.$SequenceType_frequency,
-                                IO.formatFrequency(count / (float) samples.size()))
-                );
+    /**
+     * Computes the allele, reference, disruption and proteoform statistics of a single feature.
+     *
+     * @param feature              The {@link Feature} to update.
+     * @param disruptedProteoforms The disrupted proteoforms of the feature; null if the feature is not coding or
+     *                             proteoform inference is skipped.
+     * @param sampleCount          The number of samples in the storage.
+     */
+    private void updateFeatureStatistics(Feature feature, Set<String> disruptedProteoforms, int sampleCount) {
+        boolean proteoformStatistics = !parameters.skipProteoformInference() && feature.isCoding();
+        float nonReferenceOccurrence = 0;
+        int disrupted = 0;
+        Map<String, Integer> perProteoformOccurrence = new HashMap<>();
+
+        // Process alleles for the feature to calculate allelic frequencies and proteoform statistics.
+        for (SequenceType allele : feature.getAlleles()) {
+            int alleleOccurrence = allele.getCount();
+            allele.setAttribute(Constants.$SequenceType_frequency,
+                    IO.formatFrequency(alleleOccurrence / (float) sampleCount)
+            );
+            nonReferenceOccurrence += alleleOccurrence;
+
+            if (proteoformStatistics) {
+                String proteoformUid = allele.getAttribute(Constants.$Allele_proteoform);
+                if (!Objects.equals(proteoformUid, Constants.synonymous)) {
+                    if (disruptedProteoforms.contains(proteoformUid))
+                        disrupted++;
+                    perProteoformOccurrence.merge(proteoformUid, alleleOccurrence, Integer::sum);
+                }
             }
         }
+
+        // Update feature attributes with calculated statistics.
+        feature.setAttribute(Constants.$Attributable_frequencyReference,
+                IO.formatFrequency(1 - (nonReferenceOccurrence / sampleCount))
+        );
+        feature.setAttribute(Constants.$Feature_numberOfAlleles, String.valueOf(feature.getAlleleCount()));
+
+        if (proteoformStatistics) {
+            int proteoformCount = feature.getProteoformCount();
+            float disruptedFrequency = proteoformCount == 0 ? 0 : disrupted / (float) proteoformCount;
+            feature.setAttribute(Constants.$Attributable_frequencyDisrupted,
+                    IO.formatFrequency(disruptedFrequency)
+            );
+            feature.setAttribute(Constants.$Feature_numberOfProteoforms, String.valueOf(feature.getProteoformCount()));
+            perProteoformOccurrence.forEach((proteoformUid, count) ->
+                    feature.getProteoform(proteoformUid).setAttribute(Constants.$SequenceType_frequency,
+                            IO.formatFrequency(count / (float) sampleCount))
+            );
+        }
     }
 
     /**
      * Initializes transient properties of the {@link Storage} instance.
      * <p>
      * This method initializes transient properties such as {@link #novelVariants}, {@link #sampleInfo},
-     * and {@link #vcfFiles}. It also ensures that the contigs have their sequence caches initialized.
+     * and {@link #vcfFiles}. It also ensures that the contigs have their sequence caches and per-sample variant
+     * indices initialized.
      */
     private void setTransientProperties() {
         if (this.vcfHandler == null)
@@ -1271,7 +1681,8 @@ public class Storage {
         if (this.vcfFiles == null)
             this.vcfFiles = new ArrayList<>();
         contigs.values().forEach(contig -> {
-            if (contig.sequenceCache == null) contig.sequenceCache = new HashMap<>();
+            if (contig.sequenceCache == null) contig.sequenceCache = new ConcurrentHashMap<>();
+            if (contig.sampleIndex == null) contig.buildSampleIndex();
         });
     }
 
@@ -1859,6 +2270,7 @@ public class Storage {
             variantInformation = contig.variants.get(position)
                     .putIfAbsent(alternativeContent, new VariantInformation(referenceContent, alternativeContent));
             contig.variants.get(position).get(alternativeContent).addSampleOccurrence(sampleName);
+            contig.indexSampleVariant(sampleName, position, alternativeContent);
             featureNames.forEach(featureName -> contig.variants.get(position).get(alternativeContent).addFeatureOccurrence(featureName));
             if (Objects.nonNull(variantInformation) && !variantInformation.reference.equals(referenceContent)) {
                 Logging.logWarning("Variant call %s at position %d on contig %s occurred with different reference bases %s and %s."
@@ -1879,7 +2291,29 @@ public class Storage {
      * including allele information storage, variant context processing, and integration with
      * external tools like SnpEff for annotation.
      */
-    private class VcfHandler {
+    class VcfHandler {
+
+        /**
+         * Fully qualified names of the SnpEff command line class of recent and legacy SnpEff versions.
+         */
+        private static final List<String> snpEffClassNames = List.of("org.snpeff.SnpEff",
+                "ca.mcgill.mcb.pcingola.snpEffect.commandLine.SnpEff");
+
+        /**
+         * Minimal number of variants per shard if novel variants are annotated by multiple SnpEff processes concurrently.
+         */
+        private static final int snpEffMinimumShardSize = 10000;
+
+        /**
+         * Lock guarding the replacement of the standard streams while SnpEff is run in this JVM.
+         */
+        private static final Object snpEffStreamLock = new Object();
+
+        /**
+         * Name of the annotation store of a cached SnpEff database, i.e., the file of annotated VCF records (without
+         * header) of all variants annotated with the database.
+         */
+        private static final String snpEffAnnotationStoreName = "annotations.vcf";
 
         /**
          * Used to store information about a specific allele,
@@ -2157,13 +2591,19 @@ public class Storage {
          * <ul>
          *   <li>Checks if the storage contains novel variants to annotate. If not, throws an {@link IllegalArgumentException}.</li>
          *   <li>Creates a temporary directory for SnpEff files and configurations.</li>
-         *   <li>Writes the novel variants from the storage to a temporary VCF file.</li>
-         *   <li>Copies the SnpEff configuration and JAR files to the temporary directory.</li>
-         *   <li>Writes the reference genome and features files to the appropriate locations in the temporary directory.</li>
-         *   <li>Updates the SnpEff configuration file with reference genome information.</li>
-         *   <li>Builds the SnpEff database using the reference genome information.</li>
-         *   <li>Runs the SnpEff annotation on the temporary VCF file.</li>
-         *   <li>Processes the annotation results and updates the storage with the annotated data.</li>
+         *   <li>If {@link Musial#nativeEffects} is set, predicts the effects of SNVs within the coding sequence of a
+         *   single-exon feature without SnpEff (see {@link #predictCodingEffects}).</li>
+         *   <li>Writes the reference genome and features files and the SnpEff configuration with reference genome
+         *   information to the temporary directory; the files are streamed, i.e., never materialized as a whole.</li>
+         *   <li>Builds the SnpEff database in the temporary directory or, if a cache directory is specified by
+         *   {@link Musial#snpEffCacheDirectory}, re-uses or builds the cached database (see {@link #cachedSnpEffDatabase}).</li>
+         *   <li>If a cache directory is specified, transfers the stored annotations of variants that were already annotated
+         *   with the cached database (see {@link #transferStoredAnnotations}); only the remaining variants are annotated
+         *   and their annotations are added to the store afterward (see {@link #storeAnnotations}).</li>
+         *   <li>Runs the SnpEff annotation on position-ordered shards of the variants, concurrently if multiple threads
+         *   are specified (see {@link #shardVariants}).</li>
+         *   <li>Processes the annotation results record by record and updates the storage with the annotated data;
+         *   annotated records are assigned to variants by their contig, position, reference and alternative content.</li>
          *   <li>Handles errors during the SnpEff build and annotation processes, logging them and saving error logs to the output directory.</li>
          *   <li>Cleans up the temporary directory after the analysis is complete.</li>
          * </ul>
@@ -2175,81 +2615,95 @@ public class Storage {
             // Generate a temporary directory for snpEff.
             String prefix = "%s-%s".formatted("snpEff", RandomStringUtils.randomAlphanumeric(6));
             Path temp = Files.createTempDirectory(prefix);
+            Path database = temp;
+            // Whether the database was built in this run, i.e., its build log belongs to this run.
+            boolean databaseBuilt = true;
             try {
-                // Create map to store variant pointers and write storage variants to temporary VCF file.
+                // Collect the novel variants of the storage.
                 ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> variants = new ArrayList<>(Storage.this.novelVariants.size());
                 for (Triple<String, Integer, String> variant : Storage.this.novelVariants) {
                     variants.add(new Tuple<>(variant, Storage.this.getContig(variant.getLeft()).getVariantInformation(variant.getMiddle(), variant.getRight())));
                 }
-                IO.writeFile(Path.of(temp + "/variants" + FileExtensions.VCF), IO.generateVcfContent(variants));
-
-                // Write reference .gff and .fasta to temp. target directory.
-                IO.writeFile(Path.of(temp + "/data/reference/genes.gff"), IO.generateGffContent(Storage.this));
-                IO.writeFile(Path.of(temp + "/data/genomes/reference.fa"), IO.generateReferenceFastaContent(Storage.this));
-
-                // Copy snpEff config and JAR to temp. target directory.
-                Path snpEffConfigPath = Path.of(temp + "/snpEff.config");
-                IO.copyResourceToFile("/snpEff/snpEff.config", snpEffConfigPath);
-                IO.copyResourceToFile("/snpEff/snpEff.jar", Path.of(temp + "/snpEff.jar"));
-
-                // Add reference .fasta and .gff information to snpEff.config.
-                String codonTableConfig = Storage.this.getContigs()
-                        .stream()
-                        .map(contig -> "reference.genome.%s : Bacterial_and_Plant_Plastid".formatted(contig.name))
-                        .collect(Collectors.joining("\n"));
-                Files.writeString(snpEffConfigPath, "\n# reference genome\nreference.genome : reference\n%s".formatted(codonTableConfig),
-                        StandardOpenOption.APPEND);
-
-                // Generate database with reference genome information.
-                String[] cmdSnpEffBuild = {"java", "-jar", "snpEff.jar", "build", "-gff3", "-noLog", "-nodownload", "-maxErrorRate", "0.0",
-                        "-noCheckCds", "-noCheckProtein", "reference"};
-                OS.runCommand(cmdSnpEffBuild, temp + "/snpEff.build.err", temp + "/snpEff.build.log",
-                        temp.toString());
-
-                // Run snpEff annotation on variants file.
-                String[] cmdSnpEffAnn = {"java", "-jar", "snpEff.jar", "eff", "-noLog", "-noStats", "-nodownload", "-noShiftHgvs",
-                        "-noHgvs", "-ud", "0", "reference", temp + "/variants" + FileExtensions.VCF};
-                OS.runCommand(cmdSnpEffAnn, temp + "/snpEff.ann.err", temp + "/annotation" + FileExtensions.VCF,
-                        temp.toString());
-
-                // Transfer annotation results to storage.
+
+                // Predict the effects of coding SNVs natively; only the remaining variants are annotated with SnpEff.
+                if (Musial.nativeEffects) {
+                    variants = predictCodingEffects(variants);
+                    if (variants.isEmpty())
+                        return;
+                }
+
+                // Write reference .fasta and .gff and the snpEff.config with reference .fasta and .gff information; the
+                // files are digested while they are written, to key cached databases.
+                MessageDigest digest;
                 try {
-                    List<String> lines = IO.readFile(new File(temp + "/annotation" + FileExtensions.VCF))
-                            .stream()
-                            .filter(s -> !s.startsWith(Constants.SIGN))
-                            .toList();
-                    int index = 0;
-                    for (String line : lines) {
-                        String[] annotationFields = line.split("\t");
-                        if (!annotationFields[7].equals(".")) {
-                            annotationFields = annotationFields[7].replace("ANN=", "").split(Constants.COMMA)[0].split("\\|");
-                            for (int i = 0; i < annotationFields.length; i++) {
-                                if (i == 1 || i == 2 || i == 5 || i == 7 || i == 12 || i == 13) {
-                                    variants.get(index).b.addAttributeIfAbsent(
-                                            Constants.snpEffAttributeKeyPrefix + Constants.snpEffKeys.get(i),
-                                            i == 1 ? annotationFields[i].replaceAll("&", Constants.COMMA) : annotationFields[i]
-                                    );
-                                } else if (i == 6) {
-                                    variants.get(index).b.addAttributeIfAbsent(
-                                            Constants.snpEffAttributeKeyPrefix + Constants.snpEffKeys.get(i),
-                                            annotationFields[i].split("-")[1]
-                                    );
-                                }
-                            }
-                        }
-                        index++;
+                    digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+                try (Writer fastaWriter = digestingWriter(temp.resolve("data/genomes/reference.fa"), digest)) {
+                    IO.writeReferenceFasta(fastaWriter, Storage.this);
+                }
+                digest.update((byte) 0);
+                try (Writer gffWriter = digestingWriter(temp.resolve("data/reference/genes.gff"), digest)) {
+                    IO.writeGff(gffWriter, Storage.this);
+                }
+                digest.update((byte) 0);
+                try (Writer configWriter = digestingWriter(temp.resolve("snpEff.config"), digest)) {
+                    configWriter.write(generateSnpEffConfigContent());
+                }
+                digest.update((byte) 0);
+
+                // Build the database with reference genome information or re-use a cached database.
+                if (Objects.isNull(Musial.snpEffCacheDirectory)) {
+                    buildSnpEffDatabase(temp);
+                } else {
+                    Tuple<Path, Boolean> cachedDatabase = cachedSnpEffDatabase(Hex.encodeHexString(digest.digest()), temp);
+                    database = cachedDatabase.a;
+                    databaseBuilt = cachedDatabase.b;
+                }
+
+                // Transfer stored annotations of previously annotated variants; only unseen variants are annotated.
+                if (Objects.nonNull(Musial.snpEffCacheDirectory))
+                    variants = transferStoredAnnotations(database, variants);
+
+                // Split variants into position-ordered shards and run snpEff annotation on each shard; annotation
+                // results are transferred to the storage while the annotated records are read.
+                List<List<Tuple<Triple<String, Integer, String>, VariantInformation>>> shards = shardVariants(variants);
+                if (shards.size() > 1) {
+                    Path annotationDatabase = database;
+                    List<Callable<Void>> tasks = new ArrayList<>(shards.size());
+                    for (int i = 0; i < shards.size(); i++) {
+                        int shard = i;
+                        tasks.add(() -> {
+                            annotateVariants(annotationDatabase, temp, shard, shards.get(shard));
+                            return null;
+                        });
                     }
-                } catch (FileNotFoundException e) {
-                    throw new MusialException(String.format("Failed to read SnpEff annotation. %s", e.getMessage()));
+                    invokeConcurrently(tasks, "SnpEff annotation");
+                } else if (shards.size() == 1) {
+                    annotateVariants(database, temp, 0, shards.get(0));
                 }
+
+                // Add the annotated records to the annotation store of the cached database.
+                if (Objects.nonNull(Musial.snpEffCacheDirectory) && !shards.isEmpty())
+                    storeAnnotations(database, temp, shards.size());
             } finally {
-                File buildErrorFile = new File(temp + "/snpEff.build.err");
-                if (buildErrorFile.exists() && buildErrorFile.length() != 0) {
+                File buildErrorFile = new File(database + "/snpEff.build.err");
+                if (databaseBuilt && buildErrorFile.exists() && buildErrorFile.length() != 0) {
                     Logging.logSevere("SnpEff `build` has raised an error or warning; a copy of the log file is in the output directory - the annotations may be incorrect.");
                     FileUtils.copyFile(buildErrorFile, new File(Musial.outputDirectory.getAbsolutePath()
                             + "/musial_snpeff_build_%s.error".formatted(Musial.runId)));
                 }
                 File annErrorFile = new File(temp + "/snpEff.ann.err");
+                try (OutputStream annErrorStream = new FileOutputStream(annErrorFile, true)) {
+                    // Merge the error logs of all shards.
+                    File[] shardErrorFiles = temp.toFile().listFiles((directory, name) -> name.matches("snpEff\\.ann\\.\\d+\\.err"));
+                    if (Objects.nonNull(shardErrorFiles)) {
+                        Arrays.sort(shardErrorFiles);
+                        for (File shardErrorFile : shardErrorFiles)
+                            FileUtils.copyFile(shardErrorFile, annErrorStream);
+                    }
+                }
                 if (annErrorFile.exists() && annErrorFile.length() != 0) {
                     Logging.logSevere("SnpEff `ann` has raised an error or warning; a copy of the log file is in the output directory - the annotations may be incorrect.");
                     FileUtils.copyFile(annErrorFile, new File(Musial.outputDirectory.getAbsolutePath()
@@ -2260,5 +2714,792 @@ public class Storage {
             }
         }
 
+        /**
+         * Splits the specified variants into shards to be annotated concurrently.
+         * <p>
+         * Variants are ordered by contig and position and split into consecutive shards of equal size. The number of
+         * shards is the number of threads specified by {@link Musial#threads}, but at most such that each shard contains
+         * {@link #snpEffMinimumShardSize} variants, as each shard is annotated by its own SnpEff process. If SnpEff is
+         * run in this JVM, which can only run one command at a time, a single shard is used.
+         *
+         * @param variants The variants to annotate.
+         * @return The shards of variants; empty if no variants are specified.
+         */
+        private List<List<Tuple<Triple<String, Integer, String>, VariantInformation>>> shardVariants(
+                List<Tuple<Triple<String, Integer, String>, VariantInformation>> variants) {
+            if (variants.isEmpty())
+                return List.of();
+            int shardCount = Musial.snpEffInProcess ? 1
+                    : Math.max(1, Math.min(Musial.threads, variants.size() / snpEffMinimumShardSize));
+            if (shardCount == 1)
+                return List.of(variants);
+            HashMap<String, Integer> contigOrdinals = new HashMap<>();
+            Storage.this.contigs.keySet().forEach(contigName -> contigOrdinals.put(contigName, contigOrdinals.size()));
+            List<Tuple<Triple<String, Integer, String>, VariantInformation>> orderedVariants = new ArrayList<>(variants);
+            orderedVariants.sort(Comparator
+                    .comparingInt((Tuple<Triple<String, Integer, String>, VariantInformation> variant) -> contigOrdinals.get(variant.a.getLeft()))
+                    .thenComparingInt(variant -> variant.a.getMiddle()));
+            List<List<Tuple<Triple<String, Integer, String>, VariantInformation>>> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++)
+                shards.add(orderedVariants.subList(
+                        (int) ((long) i * orderedVariants.size() / shardCount),
+                        (int) ((long) (i + 1) * orderedVariants.size() / shardCount)));
+            return shards;
+        }
+
+        /**
+         * Runs the SnpEff annotation of a single shard of variants and transfers the annotations to the variants.
+         * <p>
+         * If SnpEff is run in this JVM, variants and annotations are passed in memory and annotated records are
+         * processed as they are written by SnpEff; otherwise, or if annotations are to be stored (see
+         * {@link #storeAnnotations}), the annotations are streamed from a temporary VCF file of the shard. Each shard assigns records to its own variants only, i.e.,
+         * shards can be annotated concurrently.
+         *
+         * @param database The SnpEff working directory with the built database.
+         * @param temp     The temporary directory of the analysis.
+         * @param shard    The index of the shard.
+         * @param variants The variants of the shard.
+         * @throws IOException     If an error occurs while reading or writing files.
+         * @throws MusialException If the SnpEff annotation fails.
+         */
+        private void annotateVariants(Path database, Path temp, int shard,
+                                      List<Tuple<Triple<String, Integer, String>, VariantInformation>> variants)
+                throws IOException, MusialException {
+            HashMap<String, List<VariantInformation>> variantsByKey = variantsByKey(variants);
+            List<String> effArguments = List.of("eff", "-noLog", "-noStats", "-nodownload", "-noShiftHgvs", "-noHgvs", "-ud",
+                    "0", "reference");
+            File errorLog = new File(temp + "/snpEff.ann.%d.err".formatted(shard));
+            Path annotationFile = annotationFile(temp, shard);
+            if (Musial.snpEffInProcess) {
+                ByteArrayOutputStream variantsStream = new ByteArrayOutputStream();
+                try (Writer variantsWriter = new BufferedWriter(new OutputStreamWriter(variantsStream, StandardCharsets.UTF_8))) {
+                    IO.writeVcf(variantsWriter, variants);
+                }
+                if (Objects.isNull(Musial.snpEffCacheDirectory)) {
+                    try (OutputStream annotationStream = new AnnotationLineStream(line -> transferAnnotation(line, variantsByKey))) {
+                        runSnpEffInProcess(database, effArguments, new ByteArrayInputStream(variantsStream.toByteArray()),
+                                annotationStream, errorLog);
+                    }
+                    return;
+                }
+                // Keep the annotated records in a file, to add them to the annotation store.
+                try (OutputStream annotationStream = new BufferedOutputStream(Files.newOutputStream(annotationFile))) {
+                    runSnpEffInProcess(database, effArguments, new ByteArrayInputStream(variantsStream.toByteArray()),
+                            annotationStream, errorLog);
+                }
+            } else {
+                Path variantsFile = Path.of(temp + "/variants.%d%s".formatted(shard, FileExtensions.VCF));
+                try (Writer variantsWriter = Files.newBufferedWriter(variantsFile, StandardCharsets.UTF_8)) {
+                    IO.writeVcf(variantsWriter, variants);
+                }
+                String[] cmdSnpEffAnn = Stream.concat(Stream.of("java", "-jar", "snpEff.jar"),
+                        Stream.concat(effArguments.stream(), Stream.of(variantsFile.toString()))).toArray(String[]::new);
+                OS.runCommand(cmdSnpEffAnn, errorLog.toString(), annotationFile.toString(), database.toString());
+            }
+            try (BufferedReader annotationReader = Files.newBufferedReader(annotationFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = annotationReader.readLine()) != null)
+                    transferAnnotation(line, variantsByKey);
+            } catch (NoSuchFileException e) {
+                throw new MusialException(String.format("Failed to read SnpEff annotation. %s", e.getMessage()));
+            }
+        }
+
+        /**
+         * Transfers the SnpEff annotation of a single annotated VCF record to the variants it was reported for.
+         * <p>
+         * The record is tokenized in place, i.e., only the variant key and the stored attribute values are allocated:
+         * The CHROM, POS, REF, ALT and INFO fields are located by their tab positions; of the INFO field, the first
+         * annotation of the {@code ANN} entry is decoded. Its {@code |}-separated fields are stored as attributes with
+         * the keys of {@link Constants#snpEffKeys}, where trailing empty fields are omitted, the effects ({@code &}
+         * separated) are stored comma separated, and of the feature identifier only the part following the feature type
+         * prefix (e.g., {@code transcript-}) is stored. Header lines and records without annotation are ignored.
+         *
+         * @param line          The annotated VCF record.
+         * @param variantsByKey The variants to annotate, accessible by their contig, position, reference and alternative
+         *                      content, separated by tabs.
+         */
+        private void transferAnnotation(String line, Map<String, List<VariantInformation>> variantsByKey) {
+            if (line.isBlank() || line.startsWith(Constants.SIGN))
+                return;
+            int[] fieldEnds = recordFieldEnds(line);
+            if (Objects.isNull(fieldEnds)) {
+                Logging.logWarning("Malformed SnpEff annotation record `%s` is ignored.".formatted(line));
+                return;
+            }
+            String key = recordKey(line, fieldEnds);
+            List<VariantInformation> annotatedVariants = variantsByKey.get(key);
+            if (Objects.isNull(annotatedVariants)) {
+                Logging.logWarning("SnpEff annotation of unknown variant %s:%s %s>%s is ignored."
+                        .formatted((Object[]) key.split("\t")));
+                return;
+            }
+            transferAnnotation(line, fieldEnds, annotatedVariants);
+        }
+
+        /**
+         * Transfers the SnpEff annotation of a single annotated VCF record to the specified variants.
+         *
+         * @param line              The annotated VCF record.
+         * @param fieldEnds         The end indices of the first eight fields of the record (see {@link #recordFieldEnds}).
+         * @param annotatedVariants The variants to annotate.
+         * @see #transferAnnotation(String, Map)
+         */
+        private void transferAnnotation(String line, int[] fieldEnds, List<VariantInformation> annotatedVariants) {
+            // Locate the first annotation of the ANN entry of the INFO field.
+            int infoStart = fieldEnds[6] + 1;
+            int infoEnd = fieldEnds[7];
+            if (infoStart >= infoEnd || (infoEnd - infoStart == 1 && line.charAt(infoStart) == '.'))
+                return;
+            int annotationStart = line.indexOf("ANN=", infoStart);
+            annotationStart = annotationStart == -1 || annotationStart >= infoEnd ? infoStart : annotationStart + 4;
+            int annotationEnd = annotationStart;
+            while (annotationEnd < infoEnd && line.charAt(annotationEnd) != ',' && line.charAt(annotationEnd) != ';')
+                annotationEnd++;
+            // Omit trailing empty fields.
+            while (annotationEnd > annotationStart && line.charAt(annotationEnd - 1) == '|')
+                annotationEnd--;
+            // Decode the annotation fields.
+            int i = 0;
+            int valueStart = annotationStart;
+            while (valueStart <= annotationEnd && i < Constants.snpEffKeys.size()) {
+                int valueEnd = line.indexOf('|', valueStart);
+                if (valueEnd == -1 || valueEnd > annotationEnd)
+                    valueEnd = annotationEnd;
+                String value = null;
+                if (i == 1) {
+                    value = line.substring(valueStart, valueEnd).replace('&', ',');
+                } else if (i == 2 || i == 5 || i == 7 || i == 12 || i == 13) {
+                    value = line.substring(valueStart, valueEnd);
+                } else if (i == 6) {
+                    int prefixEnd = line.indexOf('-', valueStart);
+                    if (prefixEnd != -1 && prefixEnd < valueEnd) {
+                        int identifierEnd = line.indexOf('-', prefixEnd + 1);
+                        value = line.substring(prefixEnd + 1, identifierEnd == -1 || identifierEnd > valueEnd ? valueEnd : identifierEnd);
+                    }
+                }
+                if (Objects.nonNull(value)) {
+                    for (VariantInformation variantInformation : annotatedVariants)
+                        variantInformation.addAttributeIfAbsent(Constants.snpEffAttributeKeyPrefix + Constants.snpEffKeys.get(i), value);
+                }
+                valueStart = valueEnd + 1;
+                i++;
+            }
+        }
+
+        /**
+         * Predicts the effects of SNVs within the coding sequence of a feature without SnpEff and returns the variants
+         * whose effect is not predicted.
+         * <p>
+         * An effect is only predicted if SnpEff would report a single annotation that is determined by the affected codon
+         * alone, i.e., if
+         * <ul>
+         *   <li>the variant is an SNV with unambiguous reference and alternative base,</li>
+         *   <li>the variant overlaps exactly one feature, which is coding and has exactly one child of each type (i.e.,
+         *   one transcript, one exon and one CDS, whose length is a multiple of three),</li>
+         *   <li>the variant is located within the CDS, and</li>
+         *   <li>the effect is one of {@code synonymous_variant}, {@code missense_variant}, {@code stop_gained},
+         *   {@code stop_lost} or {@code start_lost}; variants that retain a start or stop codon are left to SnpEff.</li>
+         * </ul>
+         * The effect is derived from the reference and alternative codon as by SnpEff, using the codon table
+         * {@code Bacterial_and_Plant_Plastid} that is configured for SnpEff (see {@link SequenceOperations#codonIndex}).
+         * The same attributes as from SnpEff annotations (see {@link #transferAnnotation(String, Map)}) are stored, i.e.,
+         * effect, impact, feature type and identifier, biotype and the CDS and protein position with the respective
+         * length (excluding a terminal stop codon).
+         *
+         * @param variants The variants to annotate.
+         * @return The variants whose effect is not predicted, which remain to be annotated with SnpEff.
+         * @throws IOException If the sequence of a contig can not be decompressed.
+         */
+        private ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> predictCodingEffects(
+                ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> variants) throws IOException {
+            // Order features of each contig by start position; the maximal end of all features up to an index bounds the
+            // search for features overlapping a position.
+            HashMap<String, List<Feature>> featuresByContig = new HashMap<>();
+            for (Feature feature : Storage.this.getFeatures())
+                featuresByContig.computeIfAbsent(feature.contig, k -> new ArrayList<>()).add(feature);
+            HashMap<String, int[]> maximalEndsByContig = new HashMap<>();
+            featuresByContig.forEach((contigName, features) -> {
+                features.sort(Comparator.comparingInt(feature -> feature.start));
+                int[] maximalEnds = new int[features.size()];
+                for (int i = 0; i < features.size(); i++)
+                    maximalEnds[i] = Math.max(i == 0 ? Integer.MIN_VALUE : maximalEnds[i - 1], features.get(i).end);
+                maximalEndsByContig.put(contigName, maximalEnds);
+            });
+
+            HashMap<String, String> sequences = new HashMap<>();
+            ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> remainingVariants = new ArrayList<>(variants.size());
+            for (Tuple<Triple<String, Integer, String>, VariantInformation> variant : variants) {
+                boolean predicted = false;
+                List<Feature> features = featuresByContig.get(variant.a.getLeft());
+                if (variant.b.type == VariantInformation.Type.SNV && Objects.nonNull(features)) {
+                    Feature feature = overlappingFeature(features, maximalEndsByContig.get(variant.a.getLeft()), variant.a.getMiddle());
+                    if (Objects.nonNull(feature)) {
+                        String sequence = sequences.get(variant.a.getLeft());
+                        if (Objects.isNull(sequence)) {
+                            sequence = Storage.this.getContig(variant.a.getLeft()).getSequence();
+                            sequences.put(variant.a.getLeft(), sequence);
+                        }
+                        predicted = predictCodingEffect(variant, feature, sequence);
+                    }
+                }
+                if (!predicted)
+                    remainingVariants.add(variant);
+            }
+            Logging.logInfo("Predicted effects of %d of %d variants without SnpEff.".formatted(
+                    variants.size() - remainingVariants.size(), variants.size()));
+            return remainingVariants;
+        }
+
+        /**
+         * Returns the only feature overlapping a position.
+         *
+         * @param features     The features of a contig, ordered by start position.
+         * @param maximalEnds  The maximal end position of the features up to each index.
+         * @param position     The 1-based position on the contig.
+         * @return The feature overlapping the position, or null if no or multiple features overlap the position.
+         */
+        private Feature overlappingFeature(List<Feature> features, int[] maximalEnds, int position) {
+            // Find the last feature starting at or before the position.
+            int low = 0;
+            int high = features.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (features.get(middle).start <= position)
+                    low = middle + 1;
+                else
+                    high = middle - 1;
+            }
+            Feature overlappingFeature = null;
+            for (int i = high; i >= 0 && maximalEnds[i] >= position; i--) {
+                if (features.get(i).end >= position) {
+                    if (Objects.nonNull(overlappingFeature))
+                        return null;
+                    overlappingFeature = features.get(i);
+                }
+            }
+            return overlappingFeature;
+        }
+
+        /**
+         * Predicts the effect of an SNV on the coding sequence of a feature and stores it as SnpEff attributes of the
+         * variant, if the prediction is unambiguous (see {@link #predictCodingEffects}).
+         *
+         * @param variant  The SNV.
+         * @param feature  The only feature overlapping the variant.
+         * @param sequence The sequence of the contig of the variant.
+         * @return {@code true} if the effect was predicted, {@code false} if the variant is to be annotated with SnpEff.
+         */
+        boolean predictCodingEffect(Tuple<Triple<String, Integer, String>, VariantInformation> variant, Feature feature,
+                                    String sequence) {
+            // Check for a single transcript with a single CDS containing the variant.
+            SortedMap<String, List<Tuple<Integer, Integer>>> children = feature.getChildren();
+            if (!feature.isCoding() || children.values().stream().anyMatch(locations -> locations.size() != 1))
+                return false;
+            Tuple<Integer, Integer> cds = children.get("CDS").get(0);
+            int position = variant.a.getMiddle();
+            int cdsLength = cds.b - cds.a + 1;
+            if (position < cds.a || position > cds.b || cdsLength % 3 != 0 || cds.b > sequence.length())
+                return false;
+
+            // Determine the reference and alternative codon wrt. the forward strand.
+            boolean reverse = feature.isReverse();
+            int cdsPosition = reverse ? cds.b - position + 1 : position - cds.a + 1;
+            int codonNumber = (cdsPosition - 1) / 3;
+            int codonStart = reverse ? cds.b - 3 * codonNumber - 2 : cds.a + 3 * codonNumber;
+            String referenceCodon = sequence.substring(codonStart - 1, codonStart + 2);
+            StringBuilder alternativeCodon = new StringBuilder(referenceCodon);
+            alternativeCodon.setCharAt(position - codonStart, variant.a.getRight().charAt(0));
+            int referenceCodonIndex = SequenceOperations.codonIndex(referenceCodon, reverse);
+            int alternativeCodonIndex = SequenceOperations.codonIndex(alternativeCodon, reverse);
+            if (referenceCodonIndex == -1 || alternativeCodonIndex == -1 || referenceCodonIndex == alternativeCodonIndex)
+                return false;
+
+            // Determine the effect as SnpEff does; start or stop codons that are retained are left to SnpEff.
+            char stop = Constants.stopCodon.charAt(0);
+            char referenceAminoAcid = SequenceOperations.translateCodon(referenceCodonIndex);
+            char alternativeAminoAcid = SequenceOperations.translateCodon(alternativeCodonIndex);
+            String effect;
+            String impact;
+            if (codonNumber == 0 && SequenceOperations.isStartCodon(referenceCodonIndex)) {
+                if (SequenceOperations.isStartCodon(alternativeCodonIndex))
+                    return false;
+                effect = "start_lost";
+                impact = "HIGH";
+            } else if (referenceAminoAcid == stop) {
+                if (alternativeAminoAcid == stop)
+                    return false;
+                effect = "stop_lost";
+                impact = "HIGH";
+            } else if (alternativeAminoAcid == stop) {
+                effect = "stop_gained";
+                impact = "HIGH";
+            } else if (referenceAminoAcid == alternativeAminoAcid) {
+                effect = "synonymous_variant";
+                impact = "LOW";
+            } else {
+                effect = "missense_variant";
+                impact = "MODERATE";
+            }
+
+            // The protein length excludes a terminal stop codon.
+            int lastCodonStart = reverse ? cds.a : cds.b - 2;
+            int lastCodonIndex = SequenceOperations.codonIndex(sequence.substring(lastCodonStart - 1, lastCodonStart + 2), reverse);
+            int proteinLength = cdsLength / 3 - (lastCodonIndex != -1 && SequenceOperations.translateCodon(lastCodonIndex) == stop ? 1 : 0);
+
+            // Store the attributes as transferred from SnpEff annotations; the transcript identifier is reduced likewise.
+            int identifierEnd = feature.uid.indexOf('-');
+            String[] values = {effect, impact, "transcript", identifierEnd == -1 ? feature.uid : feature.uid.substring(0, identifierEnd),
+                    "protein_coding", "%d/%d".formatted(cdsPosition, cdsLength), "%d/%d".formatted(codonNumber + 1, proteinLength)};
+            int[] keys = {1, 2, 5, 6, 7, 12, 13};
+            for (int i = 0; i < keys.length; i++)
+                variant.b.addAttributeIfAbsent(Constants.snpEffAttributeKeyPrefix + Constants.snpEffKeys.get(keys[i]), values[i]);
+            return true;
+        }
+
+        /**
+         * Locates the ends of the CHROM, POS, ID, REF, ALT, QUAL, FILTER and INFO fields of a VCF record.
+         *
+         * @param line The VCF record.
+         * @return The end indices (exclusive) of the first eight fields; missing fields end at the end of the record. Null,
+         * if the record has no ALT field.
+         */
+        private int[] recordFieldEnds(String line) {
+            int[] fieldEnds = new int[8];
+            int fieldStart = 0;
+            for (int i = 0; i < fieldEnds.length; i++) {
+                int fieldEnd = fieldStart > line.length() ? -1 : line.indexOf('\t', fieldStart);
+                fieldEnds[i] = fieldEnd == -1 ? line.length() : fieldEnd;
+                fieldStart = fieldEnds[i] + 1;
+            }
+            return fieldEnds[4] == line.length() ? null : fieldEnds;
+        }
+
+        /**
+         * Returns the key of the variant of a VCF record, i.e., its CHROM, POS, REF and ALT fields separated by tabs.
+         *
+         * @param line      The VCF record.
+         * @param fieldEnds The end indices of the first eight fields of the record (see {@link #recordFieldEnds}).
+         * @return The key of the variant of the record.
+         */
+        private String recordKey(String line, int[] fieldEnds) {
+            return line.substring(0, fieldEnds[1]) + line.substring(fieldEnds[2], fieldEnds[4]);
+        }
+
+        /**
+         * Groups variants by their key, i.e., their contig, position, reference and gap-free alternative content separated
+         * by tabs, as they are reported in VCF records (see {@link IO#writeVcf}).
+         *
+         * @param variants The variants to group.
+         * @return The variants, accessible by their key.
+         */
+        private HashMap<String, List<VariantInformation>> variantsByKey(
+                List<Tuple<Triple<String, Integer, String>, VariantInformation>> variants) {
+            HashMap<String, List<VariantInformation>> variantsByKey = new HashMap<>(variants.size() * 2);
+            for (Tuple<Triple<String, Integer, String>, VariantInformation> variant : variants)
+                variantsByKey.computeIfAbsent(variantKey(variant), k -> new ArrayList<>(1)).add(variant.b);
+            return variantsByKey;
+        }
+
+        /**
+         * Returns the key of a variant, i.e., its contig, position, reference and gap-free alternative content separated
+         * by tabs.
+         *
+         * @param variant The variant.
+         * @return The key of the variant.
+         */
+        private String variantKey(Tuple<Triple<String, Integer, String>, VariantInformation> variant) {
+            return String.join("\t", variant.a.getLeft(), String.valueOf(variant.a.getMiddle()),
+                    variant.b.getReferenceBaseString(true), SequenceOperations.stripGaps(variant.a.getRight()));
+        }
+
+        /**
+         * Returns the file of the annotated VCF records of a shard.
+         *
+         * @param temp  The temporary directory of the analysis.
+         * @param shard The index of the shard.
+         * @return The file of the annotated VCF records of the shard.
+         */
+        private Path annotationFile(Path temp, int shard) {
+            return Path.of(temp + "/annotation.%d%s".formatted(shard, FileExtensions.VCF));
+        }
+
+        /**
+         * Transfers the stored annotations of the specified variants from the annotation store of a cached SnpEff
+         * database and returns the variants without stored annotation.
+         * <p>
+         * The annotation store is a file of annotated VCF records without header in the cached database directory,
+         * i.e., annotations are keyed by the digest of the reference sequences, features and SnpEff configuration (see
+         * {@link #cachedSnpEffDatabase}) and the variant key (see {@link #variantKey}). The store is read while the lock
+         * of the cache entry is held; if a variant is stored multiple times, e.g. by concurrent runs, the first record
+         * is used.
+         *
+         * @param database The SnpEff working directory of the cached database.
+         * @param variants The variants to annotate.
+         * @return The variants without stored annotation, which remain to be annotated.
+         * @throws IOException If the annotation store can not be read or locked.
+         */
+        ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> transferStoredAnnotations(
+                Path database, ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> variants) throws IOException {
+            Path store = database.resolve(snpEffAnnotationStoreName);
+            HashMap<String, List<VariantInformation>> variantsByKey = variantsByKey(variants);
+            HashSet<String> storedKeys = new HashSet<>();
+            try (FileChannel lockChannel = cacheLockChannel(database)) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    if (!Files.exists(store))
+                        return variants;
+                    repairAnnotationStore(store);
+                    try (BufferedReader storeReader = Files.newBufferedReader(store, StandardCharsets.UTF_8)) {
+                        String line;
+                        while ((line = storeReader.readLine()) != null) {
+                            int[] fieldEnds = recordFieldEnds(line);
+                            if (Objects.isNull(fieldEnds))
+                                continue;
+                            String key = recordKey(line, fieldEnds);
+                            List<VariantInformation> annotatedVariants = variantsByKey.get(key);
+                            if (Objects.nonNull(annotatedVariants) && storedKeys.add(key))
+                                transferAnnotation(line, fieldEnds, annotatedVariants);
+                        }
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+            ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> unseenVariants = new ArrayList<>(variants.size());
+            for (Tuple<Triple<String, Integer, String>, VariantInformation> variant : variants) {
+                if (!storedKeys.contains(variantKey(variant)))
+                    unseenVariants.add(variant);
+            }
+            Logging.logInfo("Use stored SnpEff annotations of %d of %d variants.".formatted(
+                    variants.size() - unseenVariants.size(), variants.size()));
+            return unseenVariants;
+        }
+
+        /**
+         * Appends the annotated VCF records of all shards to the annotation store of a cached SnpEff database (see
+         * {@link #transferStoredAnnotations}).
+         * <p>
+         * Records are appended while the lock of the cache entry is held, i.e., concurrent runs do not interleave their
+         * records; header lines are omitted.
+         *
+         * @param database   The SnpEff working directory of the cached database.
+         * @param temp       The temporary directory of the analysis, containing the annotated VCF files of the shards.
+         * @param shardCount The number of shards.
+         * @throws IOException If the annotated VCF files can not be read, or the annotation store can not be written or
+         *                     locked.
+         */
+        private void storeAnnotations(Path database, Path temp, int shardCount) throws IOException {
+            Path store = database.resolve(snpEffAnnotationStoreName);
+            try (FileChannel lockChannel = cacheLockChannel(database)) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    if (Files.exists(store))
+                        repairAnnotationStore(store);
+                    try (BufferedWriter storeWriter = Files.newBufferedWriter(store, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                        for (int shard = 0; shard < shardCount; shard++) {
+                            try (BufferedReader annotationReader = Files.newBufferedReader(annotationFile(temp, shard), StandardCharsets.UTF_8)) {
+                                String line;
+                                while ((line = annotationReader.readLine()) != null) {
+                                    if (line.isBlank() || line.startsWith(Constants.SIGN) || Objects.isNull(recordFieldEnds(line)))
+                                        continue;
+                                    storeWriter.write(line);
+                                    storeWriter.write('\n');
+                                }
+                            }
+                        }
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+
+        /**
+         * Removes a trailing incomplete record, i.e., one without line feed, from an annotation store; such records
+         * remain if a run was interrupted while appending to the store. The lock of the cache entry has to be held.
+         *
+         * @param store The annotation store.
+         * @throws IOException If the annotation store can not be read or truncated.
+         */
+        void repairAnnotationStore(Path store) throws IOException {
+            try (FileChannel storeChannel = FileChannel.open(store, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = storeChannel.size();
+                long end = size;
+                ByteBuffer lastByte = ByteBuffer.allocate(1);
+                while (end > 0) {
+                    lastByte.clear();
+                    storeChannel.read(lastByte, end - 1);
+                    if (lastByte.get(0) == '\n')
+                        break;
+                    end--;
+                }
+                if (end < size) {
+                    Logging.logWarning("Incomplete record of SnpEff annotation store %s is removed.".formatted(store));
+                    storeChannel.truncate(end);
+                }
+            }
+        }
+
+        /**
+         * Opens the lock file of a cached SnpEff database, i.e., the file {@code <key>.lock} next to the database
+         * directory; exclusive locks on it guard building the database and accessing its annotation store.
+         *
+         * @param database The SnpEff working directory of the cached database.
+         * @return A writable {@link FileChannel} of the lock file.
+         * @throws IOException If the lock file can not be opened.
+         */
+        private FileChannel cacheLockChannel(Path database) throws IOException {
+            return FileChannel.open(database.resolveSibling(database.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Generates the content of the SnpEff configuration file, i.e., the bundled configuration extended by the
+         * reference genome and the codon table of each contig.
+         *
+         * @return The content of the SnpEff configuration file.
+         * @throws IOException If the bundled configuration can not be read.
+         */
+        private String generateSnpEffConfigContent() throws IOException {
+            String bundledConfig;
+            try (InputStream configStream = Musial.class.getResourceAsStream("/snpEff/snpEff.config")) {
+                bundledConfig = new String(Objects.requireNonNull(configStream, "SnpEff configuration is not bundled.").readAllBytes(),
+                        StandardCharsets.UTF_8);
+            }
+            String codonTableConfig = Storage.this.getContigs()
+                    .stream()
+                    .map(contig -> "reference.genome.%s : Bacterial_and_Plant_Plastid".formatted(contig.name))
+                    .collect(Collectors.joining("\n"));
+            return bundledConfig + "\n# reference genome\nreference.genome : reference\n%s".formatted(codonTableConfig);
+        }
+
+        /**
+         * Opens a buffered {@link Writer} on the specified file, which passes all written bytes to a {@link MessageDigest}.
+         * Parent directories of the file are created if necessary.
+         *
+         * @param path   The file to write to.
+         * @param digest The digest to update with the written content.
+         * @return A {@link Writer} on the file.
+         * @throws IOException If the file can not be opened.
+         */
+        private Writer digestingWriter(Path path, MessageDigest digest) throws IOException {
+            Files.createDirectories(path.getParent());
+            return new BufferedWriter(new OutputStreamWriter(new DigestOutputStream(Files.newOutputStream(path), digest),
+                    StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Sets up a SnpEff working directory and builds the SnpEff database of the reference genome in it.
+         * <p>
+         * The directory must contain the SnpEff configuration ({@code snpEff.config}) and the reference .gff
+         * ({@code data/reference/genes.gff}) and .fasta ({@code data/genomes/reference.fa}) files. It will further
+         * contain the SnpEff JAR, the built database and the log and error files of the build process.
+         *
+         * @param directory The SnpEff working directory.
+         * @throws IOException     If an error occurs while writing files.
+         * @throws MusialException If the SnpEff JAR can not be copied or the build fails.
+         */
+        private void buildSnpEffDatabase(Path directory) throws IOException, MusialException {
+            // Copy JAR to target directory.
+            IO.copyResourceToFile("/snpEff/snpEff.jar", Path.of(directory + "/snpEff.jar"));
+
+            // Generate database with reference genome information.
+            List<String> buildArguments = List.of("build", "-gff3", "-noLog", "-nodownload", "-maxErrorRate", "0.0",
+                    "-noCheckCds", "-noCheckProtein", "reference");
+            if (Musial.snpEffInProcess) {
+                try (OutputStream buildLog = new FileOutputStream(directory + "/snpEff.build.log")) {
+                    runSnpEffInProcess(directory, buildArguments, null, buildLog, new File(directory + "/snpEff.build.err"));
+                }
+            } else {
+                String[] cmdSnpEffBuild = Stream.concat(Stream.of("java", "-jar", "snpEff.jar"), buildArguments.stream())
+                        .toArray(String[]::new);
+                OS.runCommand(cmdSnpEffBuild, directory + "/snpEff.build.err", directory + "/snpEff.build.log",
+                        directory.toString());
+            }
+        }
+
+        /**
+         * Runs a SnpEff command in this JVM instead of a separate process.
+         * <p>
+         * The SnpEff JAR of the working directory is loaded by a new class loader, whose parent is the platform class
+         * loader, i.e., SnpEff and its bundled dependencies are isolated from the classes of MUSIAL; as SnpEff keeps
+         * static state, e.g. its configuration, each command uses its own class loader. The command is run via the
+         * {@code SnpEff(String[])} constructor and {@code run()} method of SnpEff's command line class, which, unlike
+         * its {@code main} method, does not exit the JVM. The configuration of the working directory is passed
+         * explicitly, as the working directory of this JVM can not be changed.
+         * <p>
+         * As SnpEff reads from and writes to the standard streams, these are replaced for the duration of the command;
+         * hence, in-process commands are run one at a time.
+         *
+         * @param directory The SnpEff working directory, containing the SnpEff JAR and configuration.
+         * @param arguments The command and arguments to pass to SnpEff, without the configuration.
+         * @param input     The stream to read standard input from; null to keep the standard input.
+         * @param output    The stream to write standard output to.
+         * @param errorLog  The file to write standard error to.
+         * @throws IOException     If the SnpEff JAR can not be loaded or the error log can not be written.
+         * @throws MusialException If SnpEff can not be run or the command fails.
+         */
+        private void runSnpEffInProcess(Path directory, List<String> arguments, InputStream input, OutputStream output, File errorLog)
+                throws IOException, MusialException {
+            List<String> snpEffArguments = new ArrayList<>(arguments);
+            snpEffArguments.addAll(1, List.of("-c", directory.resolve("snpEff.config").toString()));
+            synchronized (snpEffStreamLock) {
+                PrintStream standardOutput = System.out;
+                PrintStream standardError = System.err;
+                InputStream standardInput = System.in;
+                Thread thread = Thread.currentThread();
+                ClassLoader contextClassLoader = thread.getContextClassLoader();
+                try (URLClassLoader snpEffClassLoader = new URLClassLoader(new URL[]{directory.resolve("snpEff.jar").toUri().toURL()},
+                        ClassLoader.getPlatformClassLoader());
+                     PrintStream outputStream = new PrintStream(output, false, StandardCharsets.UTF_8);
+                     PrintStream errorStream = new PrintStream(new FileOutputStream(errorLog), true, StandardCharsets.UTF_8)) {
+                    System.setOut(outputStream);
+                    System.setErr(errorStream);
+                    if (Objects.nonNull(input))
+                        System.setIn(input);
+                    thread.setContextClassLoader(snpEffClassLoader);
+                    Class<?> snpEffClass = null;
+                    for (String className : snpEffClassNames) {
+                        try {
+                            snpEffClass = snpEffClassLoader.loadClass(className);
+                            break;
+                        } catch (ClassNotFoundException ignored) {
+                            // Try the class name of other SnpEff versions.
+                        }
+                    }
+                    if (Objects.isNull(snpEffClass))
+                        throw new MusialException("Failed to run SnpEff `%s` in process; no SnpEff class found.".formatted(arguments.get(0)));
+                    Object snpEff = snpEffClass.getConstructor(String[].class).newInstance((Object) snpEffArguments.toArray(String[]::new));
+                    boolean success = (Boolean) snpEffClass.getMethod("run").invoke(snpEff);
+                    outputStream.flush();
+                    if (!success)
+                        throw new MusialException("SnpEff `%s` failed (see %s).".formatted(arguments.get(0), errorLog));
+                } catch (InvocationTargetException e) {
+                    throw new MusialException("SnpEff `%s` failed; %s".formatted(arguments.get(0), e.getCause()));
+                } catch (ReflectiveOperationException e) {
+                    throw new MusialException("Failed to run SnpEff `%s` in process; %s".formatted(arguments.get(0), e.getMessage()));
+                } finally {
+                    System.setOut(standardOutput);
+                    System.setErr(standardError);
+                    System.setIn(standardInput);
+                    thread.setContextClassLoader(contextClassLoader);
+                }
+            }
+        }
+
+        /**
+         * Returns the SnpEff working directory with a built database for the reference genome from the cache directory
+         * {@link Musial#snpEffCacheDirectory}; the database is built if it is not cached yet.
+         * <p>
+         * Cached databases are keyed by the SHA-256 digest of the reference .fasta, .gff and SnpEff configuration
+         * contents (each followed by a zero byte), i.e., any change of the reference sequences, features, software version or configuration yields a
+         * new database. Concurrent runs (also of distinct processes) coordinate via an exclusive lock on a lock file per
+         * key, which is held while the cache entry is checked and, if necessary, built. An entry is only marked as
+         * complete if the database file was written; incomplete entries, e.g. of interrupted runs, are rebuilt from the
+         * input files of the specified directory.
+         *
+         * @param key    The SHA-256 digest of the input files, encoded as hexadecimal string.
+         * @param inputs The directory containing the SnpEff configuration and the reference .gff and .fasta files (see
+         *               {@link #buildSnpEffDatabase(Path)}).
+         * @return A {@link Tuple} of the SnpEff working directory of the cached database and whether the database was
+         * built by this call; the build log of a re-used database stems from a previous run.
+         * @throws IOException     If an error occurs while reading or writing files, or locking the cache entry.
+         * @throws MusialException If the SnpEff JAR can not be copied.
+         */
+        private Tuple<Path, Boolean> cachedSnpEffDatabase(String key, Path inputs) throws IOException, MusialException {
+            Path cacheDirectory = Musial.snpEffCacheDirectory.toPath();
+            Path database = cacheDirectory.resolve(key);
+            Path completed = database.resolve(".completed");
+            Files.createDirectories(cacheDirectory);
+            try (FileChannel lockChannel = cacheLockChannel(database)) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    if (Files.exists(completed)) {
+                        Logging.logInfo("Use cached SnpEff database %s.".formatted(database));
+                        return new Tuple<>(database, false);
+                    }
+                    // Remove incomplete entries and build the database.
+                    FileUtils.deleteDirectory(database.toFile());
+                    for (String input : List.of("snpEff.config", "data/reference/genes.gff", "data/genomes/reference.fa")) {
+                        Files.createDirectories(database.resolve(input).getParent());
+                        Files.copy(inputs.resolve(input), database.resolve(input));
+                    }
+                    buildSnpEffDatabase(database);
+                    if (Files.exists(database.resolve("data/reference/snpEffectPredictor.bin")))
+                        Files.createFile(completed);
+                    else
+                        Logging.logWarning("SnpEff database %s was not built; it is not cached.".formatted(database));
+                } finally {
+                    lock.release();
+                }
+            }
+            return new Tuple<>(database, true);
+        }
+
+        /**
+         * An {@link OutputStream} that decodes the written bytes as UTF-8 lines and passes each completed line to a
+         * consumer; used to process SnpEff annotations while they are written in process. A final line without line
+         * separator is passed on close.
+         */
+        private static final class AnnotationLineStream extends OutputStream {
+
+            /**
+             * Consumer of completed lines.
+             */
+            private final Consumer<String> lineConsumer;
+
+            /**
+             * Buffer of the bytes of the current line.
+             */
+            private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream(1024);
+
+            /**
+             * Constructs a new {@link AnnotationLineStream} passing lines to the specified consumer.
+             *
+             * @param lineConsumer Consumer of completed lines, without line separator.
+             */
+            private AnnotationLineStream(Consumer<String> lineConsumer) {
+                this.lineConsumer = lineConsumer;
+            }
+
+            @Override
+            public void write(int b) {
+                if (b == '\n')
+                    flushLine();
+                else
+                    lineBuffer.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                int lineStart = off;
+                for (int i = off; i < off + len; i++) {
+                    if (b[i] == '\n') {
+                        lineBuffer.write(b, lineStart, i - lineStart);
+                        flushLine();
+                        lineStart = i + 1;
+                    }
+                }
+                lineBuffer.write(b, lineStart, off + len - lineStart);
+            }
+
+            @Override
+            public void close() {
+                if (lineBuffer.size() > 0)
+                    flushLine();
+            }
+
+            /**
+             * Passes the buffered line, without trailing carriage return, to the consumer and resets the buffer.
+             */
+            private void flushLine() {
+                String line = lineBuffer.toString(StandardCharsets.UTF_8);
+                lineBuffer.reset();
+                lineConsumer.accept(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+            }
+        }
+
     }
 }
\ No newline at end of file
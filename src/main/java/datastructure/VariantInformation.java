@@ -2,6 +2,7 @@ package datastructure;
 
 import utility.Constants;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,6 +38,19 @@ public class VariantInformation extends Attributable {
      */
     protected final HashMap<String, HashSet<String>> occurrence = new HashMap<>(2);
 
+    /**
+     * Striped locks guarding modifications of the {@link #occurrence} map of all instances.
+     * <p>
+     * Allele occurrences may be added concurrently if sequence types of multiple features are inferred in parallel.
+     * Instead of one monitor per instance, each instance is assigned one of a fixed number of locks by its identity
+     * hash code, which bounds the number of lock objects independent of the number of variants.
+     */
+    private static final Object[] occurrenceLocks = new Object[64];
+
+    static {
+        Arrays.setAll(occurrenceLocks, i -> new Object());
+    }
+
     /**
      * The type of this variant (e.g., SNV, insertion, deletion).
      */
@@ -263,13 +277,18 @@ public class VariantInformation extends Attributable {
 
     /**
      * Adds an allele occurrence to this variant for a specific feature.
+     * <p>
+     * This method is thread-safe wrt. other invocations of itself, i.e., allele occurrences of different
+     * features may be added concurrently.
      *
      * @param featureName The name of the feature.
      * @param alleleUid   The unique identifier of the allele to add.
      */
     protected void addAlleleOccurrence(String featureName, String alleleUid) {
-        addFeatureOccurrence(featureName);
-        this.occurrence.get(featureName).add(alleleUid);
+        synchronized (occurrenceLocks[System.identityHashCode(this) & (occurrenceLocks.length - 1)]) {
+            addFeatureOccurrence(featureName);
+            this.occurrence.get(featureName).add(alleleUid);
+        }
     }
 
     /**
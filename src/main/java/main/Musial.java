@@ -5,16 +5,24 @@ import datastructure.*;
 import exceptions.MusialException;
 import htsjdk.samtools.util.Tuple;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.tuple.Triple;
 import utility.*;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Main class of MUSIAL (MUlti Sample varIant AnaLysis), a tool to calculate SNV, gene, and whole genome alignments,
@@ -57,6 +65,31 @@ public final class Musial {
      */
     public static File outputDirectory;
 
+    /**
+     * Number of threads to use for parallelizable steps, e.g., sequence type inference; parsed from the
+     * `threads` parameter of the build and expand tasks (default: 1).
+     */
+    public static int threads = 1;
+
+    /**
+     * Directory to cache built SnpEff databases and variant annotations in, so that the database of an unchanged
+     * reference is only built once and each variant is only annotated once per database; parsed from the `snpEffCache`
+     * parameter of the build and expand tasks (default: null, i.e., no caching).
+     */
+    public static File snpEffCacheDirectory = null;
+
+    /**
+     * Whether to run SnpEff in this JVM, i.e., from an isolated class loader, instead of separate processes; parsed
+     * from the `snpEffInProcess` parameter of the build and expand tasks (default: false).
+     */
+    public static boolean snpEffInProcess = false;
+
+    /**
+     * Whether to predict the effects of coding SNVs in simple cases without SnpEff; parsed from the `nativeEffects`
+     * parameter of the build and expand tasks (default: false).
+     */
+    public static boolean nativeEffects = false;
+
     /**
      * Start time of the program.
      */
@@ -94,6 +127,10 @@ public final class Musial {
          * Task to export sequence data from a MUSIAL storage file.
          */
         SEQUENCE,
+        /**
+         * Task to export a binary genotype matrix from a MUSIAL storage file.
+         */
+        GENOTYPE,
         /**
          * Task is undefined.
          */
@@ -159,6 +196,10 @@ public final class Musial {
                     Logging.logInfo("Execute task \033[1;1msequence\033[0m");
                     Sequence.run();
                 }
+                case GENOTYPE -> {
+                    Logging.logInfo("Execute task \033[1;1mgenotype\033[0m");
+                    Genotype.run();
+                }
                 default -> System.exit(-2); // Exit with an error code if the task is undefined.
             }
         } catch (Exception e) {
@@ -203,6 +244,11 @@ public final class Musial {
          * @throws MusialException If a MUSIAL-specific error occurs.
          */
         private static void update(Storage storage) throws IOException, MusialException {
+            threads = threadsFromCLI();
+            snpEffCacheDirectory = snpEffCacheDirectoryFromCLI();
+            snpEffInProcess = snpEffInProcessFromCLI();
+            nativeEffects = nativeEffectsFromCLI();
+
             Logging.logInfo("Process variant calls.");
             storage.updateVariants();
 
@@ -226,7 +272,97 @@ public final class Musial {
 
             // Compute statistics for the storage.
             Logging.logInfo("Compute statistics.");
-            storage.updateStatistics();
+            storage.updateStatistics(!Boolean.TRUE.equals(CLI.parameters.get("fullStatistics")));
+        }
+
+        /**
+         * Parses the number of threads to use from the CLI parameters.
+         * <p>
+         * If no or an invalid value is specified, a single thread is used.
+         *
+         * @return The number of threads to use; at least 1.
+         */
+        private static int threadsFromCLI() {
+            if (CLI.parameters.get("threads") == null) {
+                Logging.logConfig("No value for `threads` specified; defaulting to 1.");
+                return 1;
+            }
+            String value = String.valueOf(CLI.parameters.get("threads"));
+            if (value.matches("^[1-9]\\d*(\\.0+)?$")) {
+                return (int) Double.parseDouble(value);
+            } else {
+                Logging.logWarning("Invalid value for `threads`; expected a positive integer. Defaulting to 1.");
+                return 1;
+            }
+        }
+
+        /**
+         * Parses the directory to cache SnpEff databases in from the CLI parameters.
+         * <p>
+         * If no value is specified or the directory can not be created or written to, SnpEff databases are not cached.
+         *
+         * @return The SnpEff database cache directory, or null if databases are not cached.
+         */
+        private static File snpEffCacheDirectoryFromCLI() {
+            if (CLI.parameters.get("snpEffCache") == null) {
+                Logging.logConfig("No value for `snpEffCache` specified; SnpEff databases are not cached.");
+                return null;
+            }
+            File directory = new File(String.valueOf(CLI.parameters.get("snpEffCache")));
+            try {
+                FileUtils.forceMkdir(directory);
+            } catch (IOException e) {
+                Logging.logWarning("Invalid value for `snpEffCache`; %s. SnpEff databases are not cached.".formatted(e.getMessage()));
+                return null;
+            }
+            if (!directory.canWrite()) {
+                Logging.logWarning("Invalid value for `snpEffCache`; no write permission for %s. SnpEff databases are not cached."
+                        .formatted(directory));
+                return null;
+            }
+            return directory;
+        }
+
+        /**
+         * Parses whether to run SnpEff in this JVM from the CLI parameters.
+         * <p>
+         * If no or an invalid value is specified, SnpEff is run in separate processes.
+         *
+         * @return {@code true} if SnpEff is run in this JVM, {@code false} otherwise.
+         */
+        private static boolean snpEffInProcessFromCLI() {
+            if (CLI.parameters.get("snpEffInProcess") == null) {
+                Logging.logConfig("No value for `snpEffInProcess` specified; defaulting to false.");
+                return false;
+            }
+            String value = String.valueOf(CLI.parameters.get("snpEffInProcess"));
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                return Boolean.parseBoolean(value);
+            } else {
+                Logging.logWarning("Invalid value for `snpEffInProcess`; expected `true` or `false`. Defaulting to false.");
+                return false;
+            }
+        }
+
+        /**
+         * Parses whether to predict the effects of coding SNVs without SnpEff from the CLI parameters.
+         * <p>
+         * If no or an invalid value is specified, all variants are annotated with SnpEff.
+         *
+         * @return {@code true} if effects are predicted natively where possible, {@code false} otherwise.
+         */
+        private static boolean nativeEffectsFromCLI() {
+            if (CLI.parameters.get("nativeEffects") == null) {
+                Logging.logConfig("No value for `nativeEffects` specified; defaulting to false.");
+                return false;
+            }
+            String value = String.valueOf(CLI.parameters.get("nativeEffects"));
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                return Boolean.parseBoolean(value);
+            } else {
+                Logging.logWarning("Invalid value for `nativeEffects`; expected `true` or `false`. Defaulting to false.");
+                return false;
+            }
         }
 
         /**
@@ -371,23 +507,15 @@ public final class Musial {
     public static class View {
 
         /**
-         * Represents a table structure for storing and displaying data in a tabular format.
+         * Represents a table that is written row by row in a tabular format.
          * <p>
-         * This class provides functionality to manage rows and columns, add entries, and generate
-         * a string representation of the table. It supports sorting of row identifiers using a
-         * custom comparator and allows specifying default content for missing entries.
+         * The column headers are discovered in a first pass over the viewed entities, which only collects attribute
+         * keys. The rows are generated lazily and in sorted order from the naturally ordered structures of the storage
+         * (i.e., features grouped by their start position and variants or calls ordered by their position), such that
+         * at no time more than the rows of a single start position or position are held in memory. Missing entries are
+         * filled with a default content.
          */
-        private static class Table {
-
-            /**
-             * A sorted set of unique identifiers for the rows in the table.
-             */
-            protected final NavigableSet<String> identifiers;
-
-            /**
-             * Comparator used for sorting the row identifiers.
-             */
-            private final Comparator<String> comparator;
+        static class Table {
 
             /**
              * Header for the identifier column.
@@ -395,20 +523,15 @@ public final class Musial {
             protected final String identifierHeader;
 
             /**
-             * List of column headers in the table.
-             */
-            protected final List<String> headers = new ArrayList<>();
-
-            /**
-             * Map storing the content of the table. Each key represents a column header,
-             * and the value is a map of row identifiers to cell values.
+             * List of column headers in the table, in order of their discovery.
              */
-            protected final Map<String, Map<String, Object>> content = new HashMap<>();
+            protected final List<String> headers;
 
             /**
-             * Maximum capacity of the table.
+             * Lazily generated rows of the table in sorted order. Each row maps its identifier to its cell values by
+             * column header.
              */
-            private final int capacity;
+            private final Iterator<Map.Entry<String, Map<String, String>>> rows;
 
             /**
              * Default content to display for missing entries.
@@ -419,56 +542,122 @@ public final class Musial {
              * Constructs a new `Table` instance.
              *
              * @param idHeader       The header for the identifier column.
-             * @param capacity       The maximum capacity of the table.
-             * @param comparator     The comparator used for sorting the identifiers.
+             * @param headers        The column headers, in order of their discovery.
+             * @param rows           The lazily generated rows of the table in sorted order.
              * @param defaultContent The default content for missing entries.
              */
-            protected Table(String idHeader, int capacity, Comparator<String> comparator, String defaultContent) {
-                this.identifiers = new TreeSet<>();
-                this.comparator = comparator;
+            protected Table(String idHeader, Collection<String> headers, Iterator<Map.Entry<String, Map<String, String>>> rows,
+                            String defaultContent) {
                 this.identifierHeader = idHeader;
-                this.capacity = capacity;
+                this.headers = new ArrayList<>(headers);
+                this.rows = rows;
                 this.defaultContent = defaultContent;
             }
 
             /**
-             * Adds a new entry to the table.
+             * Checks whether the table has no (remaining) rows.
              *
-             * @param id    The identifier for the row.
-             * @param items A list of key-value pairs representing the column header and its value.
+             * @return {@code true} if no rows are left to write, {@code false} otherwise.
              */
-            protected void addContent(String id, List<Tuple<String, String>> items) {
-                this.identifiers.add(id);
-                Set<String> uniqueHeaders = new HashSet<>(headers);
-                for (Tuple<String, String> item : items) {
-                    if (uniqueHeaders.add(item.a)) {
-                        headers.add(item.a);
+            protected boolean isEmpty() {
+                return !rows.hasNext();
+            }
+
+            /**
+             * Writes the header row and all rows of the table to the specified writer.
+             * <p>
+             * The rows are consumed while they are written, i.e., the table can be written only once.
+             *
+             * @param writer The {@link Writer} to write the table to; it is neither flushed nor closed.
+             * @throws IOException If an I/O error occurs while writing.
+             */
+            protected void write(Writer writer) throws IOException {
+                // Write the header row.
+                writer.append(identifierHeader).append('\t').append(String.join("\t", headers)).append('\n');
+
+                // Write each row of the table.
+                while (rows.hasNext()) {
+                    Map.Entry<String, Map<String, String>> row = rows.next();
+                    writer.append(row.getKey());
+                    for (String header : headers) {
+                        writer.append('\t').append(row.getValue().getOrDefault(header, defaultContent));
                     }
-                    content.computeIfAbsent(item.a, k -> new HashMap<>(capacity)).put(id, item.b);
+                    writer.append('\n');
                 }
             }
 
             /**
-             * Converts the table to a string representation.
+             * Writes the table in sparse long format to the specified writer.
+             * <p>
+             * One line is written per cell that differs from the default content, holding the row identifier, the
+             * column header, and the cell value; lines are sorted by row and then by column order. Only the cells
+             * present in each row are visited, i.e., the output size and time are proportional to the number of
+             * non-default cells. Rows and columns are written by their identifier and header instead of integer
+             * coordinates into row and column dictionaries, as the rows are streamed into a single output. The rows are
+             * consumed while they are written, i.e., the table can be written only once.
              *
-             * @return A string representation of the table, including headers and rows.
+             * @param writer       The {@link Writer} to write the table to; it is neither flushed nor closed.
+             * @param columnHeader The header for the column of column headers.
+             * @param valueHeader  The header for the column of cell values.
+             * @throws IOException If an I/O error occurs while writing.
              */
-            @Override
-            public String toString() {
-                StringBuilder sb = new StringBuilder();
+            protected void writeSparse(Writer writer, String columnHeader, String valueHeader) throws IOException {
+                Map<String, Integer> columnIndices = new HashMap<>(headers.size());
+                for (int i = 0; i < headers.size(); i++) columnIndices.put(headers.get(i), i);
+
+                // Write the header row.
+                writer.append(identifierHeader).append('\t').append(columnHeader).append('\t').append(valueHeader).append('\n');
+
+                // Write each non-default cell of each row, in column order.
+                while (rows.hasNext()) {
+                    Map.Entry<String, Map<String, String>> row = rows.next();
+                    List<Map.Entry<String, String>> cells = row.getValue().entrySet().stream()
+                            .filter(cell -> columnIndices.containsKey(cell.getKey()) && !Objects.equals(cell.getValue(), defaultContent))
+                            .sorted(Comparator.comparingInt(cell -> columnIndices.get(cell.getKey())))
+                            .toList();
+                    for (Map.Entry<String, String> cell : cells) {
+                        writer.append(row.getKey()).append('\t').append(cell.getKey()).append('\t').append(cell.getValue()).append('\n');
+                    }
+                }
+            }
 
-                // Append the header row.
-                sb.append(identifierHeader).append("\t").append(String.join("\t", headers)).append("\n");
+            /**
+             * Adds the cell values of a row to a group of rows, overwriting values of the same column.
+             *
+             * @param group The rows of a group, keyed by their identifier.
+             * @param id    The identifier of the row.
+             * @param items A list of key-value pairs representing the column header and its value.
+             */
+            protected static void addContent(Map<String, Map<String, String>> group, String id, List<Tuple<String, String>> items) {
+                Map<String, String> cells = group.computeIfAbsent(id, k -> new HashMap<>());
+                for (Tuple<String, String> item : items) {
+                    cells.put(item.a, item.b);
+                }
+            }
 
-                // Append each row of the table.
-                identifiers.stream().sorted(comparator).forEach(id -> {
-                    sb.append(id);
-                    for (String header : headers) {
-                        sb.append("\t").append(content.getOrDefault(header, Map.of()).getOrDefault(id, defaultContent));
-                    }
-                    sb.append("\n");
-                });
-                return sb.toString();
+            /**
+             * Adds the column headers of a list of items to the discovered headers, preserving their discovery order.
+             *
+             * @param headers The discovered headers.
+             * @param items   A list of key-value pairs representing the column header and its value.
+             */
+            protected static void addHeaders(Set<String> headers, List<Tuple<String, String>> items) {
+                for (Tuple<String, String> item : items) {
+                    headers.add(item.a);
+                }
+            }
+
+            /**
+             * Concatenates groups of rows into the rows of a table.
+             * <p>
+             * The groups are expected in sorted order and each group is expected to sort its rows by their identifier,
+             * e.g., by being a {@link TreeMap}. Groups are only generated while the rows are consumed.
+             *
+             * @param groups A stream of groups of rows in sorted order.
+             * @return An iterator over the rows of all groups.
+             */
+            protected static Iterator<Map.Entry<String, Map<String, String>>> rows(Stream<? extends Map<String, Map<String, String>>> groups) {
+                return groups.flatMap(group -> group.entrySet().stream()).iterator();
             }
         }
 
@@ -496,12 +685,29 @@ public final class Musial {
                 "call"
         );
 
+        /**
+         * Pattern of a region filter in the format {@code contig:start-end}, with 1-based inclusive positions.
+         * <p>
+         * Filter values matching this pattern are always interpreted as regions; hence, features or samples whose name
+         * has this format (e.g., {@code x:1-2}) can not be filtered for.
+         */
+        private static final Pattern regionPattern = Pattern.compile("^(.+):(\\d+)-(\\d+)$");
+
         /**
          * Generates and displays a table based on the specified content type and filters.
          * <p>
          * This method reads the storage file, applies filters for features, samples, and positions,
          * and generates a table for the specified content type. The table can be displayed on the console
          * or written to a file.
+         * <p>
+         * Positions can be filtered by single positions (applied to all contigs), by regions in the format
+         * {@code contig:start-end} (1-based, inclusive), and by paths to BED files ({@code .bed}) listing regions.
+         * Values in region format take precedence over feature and sample names.
+         * All positions are resolved into merged intervals per contig, such that only the selected parts of the
+         * position-ordered variants and variant calls are visited.
+         * <p>
+         * The {@code type} and {@code call} matrices can be written in sparse long format, i.e., one line per
+         * non-default cell, instead of dense tables.
          *
          * @throws IOException     If an I/O error occurs during file operations.
          * @throws MusialException If an error specific to MUSIAL occurs.
@@ -519,14 +725,18 @@ public final class Musial {
                         .formatted(String.join(", ", Musial.View.content), content));
             }
 
-            // Initialize sets to store filters for features, samples, and positions.
-            Set<String> features = new HashSet<>(), samples = new HashSet<>(), positions = new HashSet<>();
-            // Parse the `confine` parameter to populate the filter sets.
+            // Initialize sets to store filters for features and samples, and a map to store regions per contig.
+            Set<String> features = new HashSet<>(), samples = new HashSet<>();
+            Map<String, NavigableMap<Integer, Integer>> regions = new HashMap<>();
+            // Parse the `filter` parameter to populate the filter sets.
             //noinspection unchecked
-            for (String value : (Set<String>) CLI.parameters.get("filter")) {
-                if (storage.hasFeature(value)) features.add(value);
-                if (storage.hasSample(value)) samples.add(value);
-                if (value.matches("\\d+")) positions.add(value);
+            parseFilters(storage, (Set<String>) CLI.parameters.get("filter"), features, samples, regions);
+
+            // Check whether the matrix is to be written in sparse format; other contents are always dense.
+            boolean sparse = (Boolean) CLI.parameters.get("sparse");
+            if (sparse && !content.matches("type|call")) {
+                Logging.logWarning("Sparse output is only supported for `type` and `call` content; write dense table.");
+                sparse = false;
             }
 
             // Retrieve and validate the output destination.
@@ -554,18 +764,10 @@ public final class Musial {
 
             // Generate the table based on the specified content type.
             Logging.logInfo("Generate `%s` content.".formatted(content));
-            Table table = switch (content) {
-                case "feature" -> featureTable(storage, features);
-                case "allele" -> alleleTable(storage, features, samples);
-                case "sample" -> sampleTable(storage, samples);
-                case "type" -> typeMatrix(storage, samples, features);
-                case "variant" -> variantTable(storage, positions, samples, features);
-                case "call" -> callMatrix(storage, samples, positions);
-                default -> throw new MusialException("Unknown task `view` content %s.".formatted(content));
-            };
+            Table table = table(storage, content, features, samples, regions);
 
             // Handle the case where no entries match the filters.
-            if (table.identifiers.isEmpty()) {
+            if (table.isEmpty()) {
                 Logging.logWarning("No entries to view. Check your filter parameter.");
                 // Log the completion of the task with the execution time.
                 Logging.logDone("Execution time %.2f seconds.".formatted((System.currentTimeMillis() - startTime) / 1000.0));
@@ -574,55 +776,246 @@ public final class Musial {
             else if ("stdout".equals(output)) {
                 // Log the completion of the task with the execution time.
                 Logging.logDone("Execution time %.2f seconds.".formatted((System.currentTimeMillis() - startTime) / 1000.0));
-                System.out.println(table);
+                // Stream the rows to the console; the standard output is flushed, but not closed.
+                Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()));
+                writeTable(table, writer, content, sparse);
+                writer.flush();
+                System.out.println();
             }
             // Write the table to the specified file.
             else {
-                IO.writeFile(outputFile.toPath(), table.toString());
+                FileUtils.createParentDirectories(outputFile);
+                try (Writer writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8)) {
+                    writeTable(table, writer, content, sparse);
+                }
                 Logging.logInfo("Write results to %s.".formatted(output));
                 // Log the completion of the task with the execution time.
                 Logging.logDone("Execution time %.2f seconds.".formatted((System.currentTimeMillis() - startTime) / 1000.0));
             }
         }
 
+        /**
+         * Writes a table in dense or sparse format.
+         *
+         * @param table   The {@link Table} to write.
+         * @param writer  The {@link Writer} to write the table to.
+         * @param content The content type of the table; one of {@code type} or {@code call} if {@code sparse} is set.
+         * @param sparse  Whether to write the table in sparse long format with one line per non-default cell.
+         * @throws IOException If an I/O error occurs while writing.
+         */
+        static void writeTable(Table table, Writer writer, String content, boolean sparse) throws IOException {
+            if (sparse) {
+                table.writeSparse(writer, "sample", content.equals("type") ? "id" : "call");
+            } else {
+                table.write(writer);
+            }
+        }
+
+        /**
+         * Generates the table of the specified content type.
+         *
+         * @param storage  The {@link Storage} to generate the table from.
+         * @param content  The content type; one of {@link #content}.
+         * @param features The feature names to include. If empty, all features are included.
+         * @param samples  The sample names to include. If empty, all samples are included.
+         * @param regions  The regions per contig name to include. If empty, all positions are included.
+         * @return The {@link Table} of the content type.
+         * @throws MusialException If the content type is unknown.
+         */
+        static Table table(Storage storage, String content, Set<String> features, Set<String> samples,
+                           Map<String, NavigableMap<Integer, Integer>> regions) throws MusialException {
+            return switch (content) {
+                case "feature" -> featureTable(storage, features);
+                case "allele" -> alleleTable(storage, features, samples);
+                case "sample" -> sampleTable(storage, samples);
+                case "type" -> typeMatrix(storage, samples, features);
+                case "variant" -> variantTable(storage, regions, samples, features);
+                case "call" -> callMatrix(storage, samples, regions);
+                default -> throw new MusialException("Unknown task `view` content %s.".formatted(content));
+            };
+        }
+
+        /**
+         * Parses the values of the filter parameter into feature and sample names and regions per contig.
+         * <p>
+         * Values in the format {@code contig:start-end} are regions (see {@link #regionPattern}); other values are
+         * feature or sample names of the storage, single positions (applied to all contigs), or paths to BED files.
+         *
+         * @param storage  The {@link Storage} to resolve feature and sample names and contigs with.
+         * @param values   The filter values.
+         * @param features The set to add the feature names to.
+         * @param samples  The set to add the sample names to.
+         * @param regions  The regions per contig name to add the regions to.
+         * @throws IOException     If an I/O error occurs while reading a BED file.
+         * @throws MusialException If a position or region is invalid, or a BED file does not exist or is invalid.
+         */
+        static void parseFilters(Storage storage, Set<String> values, Set<String> features, Set<String> samples,
+                                 Map<String, NavigableMap<Integer, Integer>> regions) throws IOException, MusialException {
+            for (String value : values) {
+                Matcher region = regionPattern.matcher(value);
+                if (region.matches()) {
+                    // Values in region format are regions only, even if a feature or sample has the same name.
+                    int start = parsePosition(region.group(2)), end = parsePosition(region.group(3));
+                    if (start < 1 || start > end)
+                        throw new MusialException("Invalid region filter %s; start has to be positive and not exceed end.".formatted(value));
+                    addRegion(regions, region.group(1), start, end);
+                    continue;
+                }
+                if (storage.hasFeature(value)) features.add(value);
+                if (storage.hasSample(value)) samples.add(value);
+                if (value.matches("\\d+")) {
+                    // Single positions are applied to all contigs.
+                    int position = parsePosition(value);
+                    for (Contig contig : storage.getContigs()) addRegion(regions, contig.name, position, position);
+                } else if (value.toLowerCase().endsWith(".bed") && !features.contains(value) && !samples.contains(value)) {
+                    File bedFile = new File(value);
+                    if (!bedFile.isFile() || !bedFile.canRead())
+                        throw new MusialException("BED file %s of filter does not exist or is not readable.".formatted(value));
+                    readRegions(bedFile, regions);
+                }
+            }
+        }
+
+        /**
+         * Parses a 1-based position of a position or region filter.
+         *
+         * @param value The position as string of digits.
+         * @return The parsed position.
+         * @throws MusialException If the position exceeds the range of positions.
+         */
+        private static int parsePosition(String value) throws MusialException {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new MusialException("Position %s of filter exceeds the maximum position %d.".formatted(value, Integer.MAX_VALUE));
+            }
+        }
+
+        /**
+         * Adds a region to the regions of a contig, merging it with overlapping or adjacent regions.
+         * <p>
+         * The regions of each contig are stored as a map of 1-based inclusive start to end positions, which is kept
+         * free of overlaps, such that each position is visited at most once when the regions are resolved.
+         *
+         * @param regions The regions per contig name.
+         * @param contig  The name of the contig of the region.
+         * @param start   The 1-based inclusive start position of the region.
+         * @param end     The 1-based inclusive end position of the region.
+         */
+        static void addRegion(Map<String, NavigableMap<Integer, Integer>> regions, String contig, int start, int end) {
+            NavigableMap<Integer, Integer> intervals = regions.computeIfAbsent(contig, k -> new TreeMap<>());
+
+            // Extend the region by a preceding overlapping or adjacent region.
+            Map.Entry<Integer, Integer> lower = intervals.floorEntry(start);
+            if (lower != null && lower.getValue() >= start - 1L) {
+                start = lower.getKey();
+                end = Math.max(end, lower.getValue());
+            }
+
+            // Absorb all succeeding overlapping or adjacent regions.
+            Map.Entry<Integer, Integer> higher;
+            while ((higher = intervals.ceilingEntry(start)) != null && higher.getKey() <= end + 1L) {
+                end = Math.max(end, higher.getValue());
+                intervals.remove(higher.getKey());
+            }
+            intervals.put(start, end);
+        }
+
+        /**
+         * Reads the regions of a BED file and adds them to the regions per contig.
+         * <p>
+         * Only the first three columns (contig, 0-based inclusive start and exclusive end position) are considered;
+         * {@code track}, {@code browser}, comment, and empty lines as well as empty regions are skipped.
+         *
+         * @param file    The BED file to read.
+         * @param regions The regions per contig name to add the regions to.
+         * @throws IOException     If an I/O error occurs while reading the file.
+         * @throws MusialException If a line of the file is not a valid BED record.
+         */
+        static void readRegions(File file, Map<String, NavigableMap<Integer, Integer>> regions) throws IOException, MusialException {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || line.startsWith("#") || line.startsWith("track") || line.startsWith("browser"))
+                        continue;
+                    String[] fields = line.split(Constants.TAB, 4);
+                    if (fields.length < 3 || !fields[1].matches("\\d+") || !fields[2].matches("\\d+"))
+                        throw new MusialException("Invalid BED record in line %d of %s.".formatted(lineNumber, file));
+                    // Convert the 0-based half-open interval into a 1-based inclusive region.
+                    int start = parsePosition(fields[1]) + 1, end = parsePosition(fields[2]);
+                    if (start <= end) addRegion(regions, fields[0], start, end);
+                }
+            }
+        }
+
+        /**
+         * Selects the parts of a position-ordered map that lie within the regions of a contig.
+         *
+         * @param map     The map to select from, keyed by 1-based position.
+         * @param contig  The name of the contig the map belongs to.
+         * @param regions The regions per contig name. If empty, the whole map is selected.
+         * @param <V>     The type of values of the map.
+         * @return The sub-maps of the map that lie within the regions of the contig, in ascending order.
+         */
+        static <V> List<NavigableMap<Integer, V>> selectRegions(NavigableMap<Integer, V> map, String contig,
+                                                                 Map<String, NavigableMap<Integer, Integer>> regions) {
+            if (regions.isEmpty()) return List.of(map);
+            return regions.getOrDefault(contig, Collections.emptyNavigableMap()).entrySet().stream()
+                    .map(region -> map.subMap(region.getKey(), true, region.getValue(), true))
+                    .toList();
+        }
+
         /**
          * Generates a table containing information about genomic features.
          * <p>
          * This method creates a table with rows representing features and columns representing
          * various attributes of each feature. The table can be filtered to include only specific
-         * features based on the provided set of feature names.
+         * features based on the provided set of feature names. Rows are sorted by feature start position.
          *
          * @param storage The {@link Storage} instance containing the features to be included in the table.
          * @param include A set of feature names to include in the table. If empty, all features are included.
          * @return A {@link Table} object containing the feature information.
          */
         private static Table featureTable(Storage storage, Set<String> include) {
-            // Initialize the table with the header "name" and a comparator for sorting by feature start position.
-            Table table = new Table("name", include.isEmpty() ? storage.getFeatures().size() : include.size(),
-                    Comparator.comparingInt(i -> storage.getFeature(i).start), Constants.EMPTY);
-
-            // Stream through the features in the storage, filtering based on the include set.
-            storage.getFeatures().stream()
+            // Filter the features in the storage based on the include set.
+            List<Feature> features = storage.getFeatures().stream()
                     .filter(feature -> include.isEmpty() || include.contains(feature.name))
-                    .forEach(feature -> {
-                        // Create a list of tuples representing the feature's attributes.
-                        List<Tuple<String, String>> items = new ArrayList<>(List.of(
-                                new Tuple<>("chromosome", feature.contig),
-                                new Tuple<>("start", String.valueOf(feature.start)),
-                                new Tuple<>("end", String.valueOf(feature.end)),
-                                new Tuple<>("strand", String.valueOf(feature.strand)),
-                                new Tuple<>("type", feature.type)
-                        ));
-
-                        // Add additional attributes of the feature to the list.
-                        feature.getAttributes().forEach((key, value) -> items.add(new Tuple<>(key, value)));
-
-                        // Add the feature's name and its attributes to the table.
-                        table.addContent(feature.name, items);
-                    });
+                    .toList();
+
+            // Discover the column headers.
+            Set<String> headers = new LinkedHashSet<>();
+            features.forEach(feature -> Table.addHeaders(headers, featureItems(feature)));
+
+            // Generate the rows per feature start position, sorted by feature name.
+            Iterator<Map.Entry<String, Map<String, String>>> rows = Table.rows(featuresByStart(features).stream().map(group -> {
+                TreeMap<String, Map<String, String>> groupRows = new TreeMap<>();
+                group.forEach(feature -> Table.addContent(groupRows, feature.name, featureItems(feature)));
+                return groupRows;
+            }));
+            return new Table("name", headers, rows, Constants.EMPTY);
+        }
 
-            // Return the populated table.
-            return table;
+        /**
+         * Creates the cell values of a feature row.
+         *
+         * @param feature The {@link Feature} to create the cell values for.
+         * @return A list of key-value pairs representing the column header and its value.
+         */
+        private static List<Tuple<String, String>> featureItems(Feature feature) {
+            // Create a list of tuples representing the feature's attributes.
+            List<Tuple<String, String>> items = new ArrayList<>(List.of(
+                    new Tuple<>("chromosome", feature.contig),
+                    new Tuple<>("start", String.valueOf(feature.start)),
+                    new Tuple<>("end", String.valueOf(feature.end)),
+                    new Tuple<>("strand", String.valueOf(feature.strand)),
+                    new Tuple<>("type", feature.type)
+            ));
+
+            // Add additional attributes of the feature to the list.
+            feature.getAttributes().forEach((key, value) -> items.add(new Tuple<>(key, value)));
+            return items;
         }
 
         /**
@@ -630,6 +1023,8 @@ public final class Musial {
          * <p>
          * This method creates a table with rows representing alleles and proteoforms associated with features.
          * The table can be filtered to include only specific features and samples based on the provided sets.
+         * Rows are sorted by feature start position; rows of features with the same start position are sorted by
+         * their identifier, i.e., alleles of a feature precede its proteoforms.
          *
          * @param storage         The {@link Storage} instance containing the features and alleles to be included in the table.
          * @param includeFeatures A set of feature names to include in the table. If empty, all features are included.
@@ -637,74 +1032,71 @@ public final class Musial {
          * @return A {@link Table} object containing the allele and proteoform information.
          */
         private static Table alleleTable(Storage storage, Set<String> includeFeatures, Set<String> includeSamples) {
-            // Initialize the table with the header "feature    type    uid".
-            // The comparator is used to sort the rows based on feature start position.
-            Comparator<String> comparator = (r1, r2) -> {
-                String[] parts1 = r1.split(Constants.TAB);
-                String[] parts2 = r2.split(Constants.TAB);
-
-                // Extract feature, type, and UID for both rows
-                String feature1 = parts1[0], feature2 = parts2[0];
-                String type1 = parts1[1], type2 = parts2[1];
-
-                // Compare features
-                if (!feature1.equals(feature2)) {
-                    return Integer.compare(storage.getFeature(feature1).start, storage.getFeature(feature2).start);
-                }
-
-                // Compare types
-                if (!type1.equals(type2)) {
-                    return type1.compareTo(type2); // Alleles first, then proteoforms
-                }
-
-                return 0;
-            };
-            Table table = new Table("feature\ttype\tid", storage.getFeatures().size(), comparator, Constants.EMPTY);
-
-            // Stream through the features in the storage, filtering based on the includeFeatures set.
-            storage.getFeatures().stream()
+            // Filter the features in the storage based on the includeFeatures set.
+            List<Feature> features = storage.getFeatures().stream()
                     .filter(feature -> includeFeatures.isEmpty() || includeFeatures.contains(feature.name))
-                    .forEach(feature -> {
-                        // Track proteoform uids of associated alleles.
-                        Set<String> proteoformUids = new HashSet<>();
-
-                        // Process each allele of the feature.
-                        feature.getAlleles().forEach(allele -> {
-                            // Check if the allele should be included based on the includeSamples parameter
-                            if (includeSamples.isEmpty() || includeSamples.stream().anyMatch(allele::hasOccurrence)) {
-                                // Create a list of tuples representing the allele's attributes.
-                                // Valid proteoform UIDs are used to map to proteoform names.
-                                List<Tuple<String, String>> items = new ArrayList<>();
-                                for (Map.Entry<String, String> attribute : allele.getAttributes().entrySet()) {
-                                    String key = attribute.getKey(), value = attribute.getValue();
-                                    if (key.equals(Constants.$Allele_proteoform) && !value.equals(Constants.synonymous)) {
-                                        proteoformUids.add(attribute.getValue());
-                                        value = feature.getProteoform(value).getNameOrUid();
-                                    }
-                                    items.add(new Tuple<>(key, value));
-                                }
-                                // Add the allele's information to the table.
-                                table.addContent("%s\tallele\t%s".formatted(feature.name, allele.getNameOrUid()), items);
-                            }
-                        });
-
-                        // Process proteoforms if proteoform inference is not skipped and the feature is coding.
-                        if (feature.isCoding() && storage.runProteoformInference() && !proteoformUids.isEmpty()) {
-                            for (String uid : proteoformUids) {
-                                // Create a list of tuples representing the proteoform's attributes.
-                                Feature.Proteoform proteoform = feature.getProteoform(uid);
-                                List<Tuple<String, String>> items = new ArrayList<>(proteoform.getAttributes().entrySet().stream()
-                                        .map(entry -> new Tuple<>(entry.getKey(), entry.getValue()))
-                                        .toList());
-
-                                // Add the proteoform's information to the table.
-                                table.addContent("%s\tproteoform\t%s".formatted(feature.name, proteoform.getNameOrUid()), items);
-                            }
-                        }
-                    });
+                    .toList();
+
+            // Discover the column headers.
+            Set<String> headers = new LinkedHashSet<>();
+            features.forEach(feature -> alleleItems(storage, feature, includeSamples)
+                    .forEach(row -> Table.addHeaders(headers, row.b)));
+
+            // Generate the rows per feature start position, sorted by their identifier.
+            Iterator<Map.Entry<String, Map<String, String>>> rows = Table.rows(featuresByStart(features).stream().map(group -> {
+                TreeMap<String, Map<String, String>> groupRows = new TreeMap<>();
+                group.forEach(feature -> alleleItems(storage, feature, includeSamples)
+                        .forEach(row -> Table.addContent(groupRows, row.a, row.b)));
+                return groupRows;
+            }));
+            return new Table("feature\ttype\tid", headers, rows, Constants.EMPTY);
+        }
 
-            // Return the populated table.
-            return table;
+        /**
+         * Creates the identifiers and cell values of the allele and proteoform rows of a feature.
+         *
+         * @param storage        The {@link Storage} instance containing the feature.
+         * @param feature        The {@link Feature} to create the rows for.
+         * @param includeSamples A set of sample names to include alleles of. If empty, all alleles are included.
+         * @return A list of row identifiers and their key-value pairs representing the column header and its value.
+         */
+        private static List<Tuple<String, List<Tuple<String, String>>>> alleleItems(Storage storage, Feature feature, Set<String> includeSamples) {
+            List<Tuple<String, List<Tuple<String, String>>>> rows = new ArrayList<>();
+
+            // Track proteoform uids of associated alleles.
+            Set<String> proteoformUids = new HashSet<>();
+
+            // Process each allele of the feature.
+            feature.getAlleles().forEach(allele -> {
+                // Check if the allele should be included based on the includeSamples parameter
+                if (includeSamples.isEmpty() || includeSamples.stream().anyMatch(allele::hasOccurrence)) {
+                    // Create a list of tuples representing the allele's attributes.
+                    // Valid proteoform UIDs are used to map to proteoform names.
+                    List<Tuple<String, String>> items = new ArrayList<>();
+                    for (Map.Entry<String, String> attribute : allele.getAttributes().entrySet()) {
+                        String key = attribute.getKey(), value = attribute.getValue();
+                        if (key.equals(Constants.$Allele_proteoform) && !value.equals(Constants.synonymous)) {
+                            proteoformUids.add(attribute.getValue());
+                            value = feature.getProteoform(value).getNameOrUid();
+                        }
+                        items.add(new Tuple<>(key, value));
+                    }
+                    rows.add(new Tuple<>("%s\tallele\t%s".formatted(feature.name, allele.getNameOrUid()), items));
+                }
+            });
+
+            // Process proteoforms if proteoform inference is not skipped and the feature is coding.
+            if (feature.isCoding() && storage.runProteoformInference() && !proteoformUids.isEmpty()) {
+                for (String uid : proteoformUids) {
+                    // Create a list of tuples representing the proteoform's attributes.
+                    Feature.Proteoform proteoform = feature.getProteoform(uid);
+                    List<Tuple<String, String>> items = proteoform.getAttributes().entrySet().stream()
+                            .map(entry -> new Tuple<>(entry.getKey(), entry.getValue()))
+                            .toList();
+                    rows.add(new Tuple<>("%s\tproteoform\t%s".formatted(feature.name, proteoform.getNameOrUid()), items));
+                }
+            }
+            return rows;
         }
 
         /**
@@ -712,32 +1104,27 @@ public final class Musial {
          * <p>
          * This method creates a table with rows representing samples and columns representing
          * various attributes of each sample. The table can be filtered to include only specific
-         * samples based on the provided set of sample names.
+         * samples based on the provided set of sample names. Rows are sorted by sample name.
          *
          * @param storage The {@link Storage} instance containing the samples to be included in the table.
          * @param include A set of sample names to include in the table. If empty, all samples are included.
          * @return A {@link Table} object containing the sample information.
          */
         private static Table sampleTable(Storage storage, Set<String> include) {
-            // Initialize the table with the header "name" and a comparator for natural ordering of sample names.
-            Table table = new Table("name", include.isEmpty() ? storage.getSamples().size() : include.size(),
-                    Comparator.naturalOrder(), Constants.EMPTY);
-
-            // Stream through the samples in the storage, filtering based on the include set.
-            storage.getSamples().stream()
+            // Filter the samples in the storage based on the include set.
+            List<Sample> samples = storage.getSamples().stream()
                     .filter(sample -> include.isEmpty() || include.contains(sample.name))
-                    .forEach(sample -> {
-                        // Create a list of tuples representing the sample's attributes.
-                        List<Tuple<String, String>> items = sample.getAttributes().entrySet().stream()
-                                .map(entry -> new Tuple<>(entry.getKey(), entry.getValue()))
-                                .toList();
+                    .toList();
 
-                        // Add the sample's name and its attributes to the table.
-                        table.addContent(sample.name, items);
-                    });
+            // Discover the column headers.
+            Set<String> headers = new LinkedHashSet<>();
+            samples.forEach(sample -> headers.addAll(sample.getAttributes().keySet()));
 
-            // Return the populated table.
-            return table;
+            // Generate one row per sample, sorted by sample name.
+            Iterator<Map.Entry<String, Map<String, String>>> rows = Table.rows(samples.stream()
+                    .sorted(Comparator.comparing(sample -> sample.name))
+                    .map(sample -> Map.of(sample.name, sample.getAttributes())));
+            return new Table("name", headers, rows, Constants.EMPTY);
         }
 
         /**
@@ -745,6 +1132,8 @@ public final class Musial {
          * <p>
          * This method creates a table with rows representing alleles and proteoforms associated with features.
          * The table can be filtered to include only specific samples and features based on the provided sets.
+         * Rows are sorted by feature start position. The cells of each row are generated from the sample occurrences
+         * of the feature's alleles, i.e., only cells that are not left at the default content are visited.
          *
          * @param storage         The {@link Storage} instance containing the samples and features to be included in the table.
          * @param includeSamples  A set of sample names to include in the table. If empty, all samples are included.
@@ -752,37 +1141,52 @@ public final class Musial {
          * @return A {@link Table} object containing the sequence type information.
          */
         private static Table typeMatrix(Storage storage, Set<String> includeSamples, Set<String> includeFeatures) {
-            // Initialize the table with the header "name   type" and a comparator for sorting by feature start position.
-            Table table = new Table("name\ttype", includeFeatures.isEmpty() ? storage.getFeatures().size() : includeFeatures.size(),
-                    Comparator.comparingInt(i -> storage.getFeature(i.split(Constants.TAB)[0]).start), Constants.synonymous);
-
-            // Stream through the samples in the storage, filtering based on the includedSamples set.
+            // Discover the samples (columns) and features (rows) with at least one included allele.
+            List<Sample> samples = new ArrayList<>();
+            Set<String> featureNames = new HashSet<>();
             storage.getSamples().stream()
                     .filter(sample -> includeSamples.isEmpty() || includeSamples.contains(sample.name))
-                    .forEach(sample ->
-                            // Stream through the alleles of the sample, filtering based on the includeFeatures set.
-                            sample.getAlleles().stream()
-                                    .filter(entry -> includeFeatures.isEmpty() || includeFeatures.contains(entry.getKey()))
-                                    .forEach(entry -> {
-                                        // Retrieve the feature and allele information.
-                                        Feature feature = storage.getFeature(entry.getKey());
-                                        String alleleUid = entry.getValue();
-                                        String alleleName = feature.getAllele(alleleUid).getNameOrUid();
-
-                                        // Add allele information to the table.
-                                        table.addContent("%s\tallele".formatted(feature.name), List.of(new Tuple<>(sample.name, alleleName)));
-
-                                        // Add proteoform information if applicable.
-                                        if (feature.isCoding() && storage.runProteoformInference()) {
-                                            String proteoformUid = feature.getAllele(alleleUid).getAttributeOrDefault(Constants.$Allele_proteoform, Constants.synonymous);
-                                            String proteoformName = proteoformUid.equals(Constants.synonymous) ? Constants.synonymous : feature.getProteoform(proteoformUid).getNameOrUid();
-                                            table.addContent("%s\tproteoform".formatted(feature.name), List.of(new Tuple<>(sample.name, proteoformName)));
-                                        }
-                                    })
-                    );
+                    .forEach(sample -> {
+                        boolean hasAllele = false;
+                        for (Map.Entry<String, String> entry : sample.getAlleles()) {
+                            if (includeFeatures.isEmpty() || includeFeatures.contains(entry.getKey())) {
+                                featureNames.add(entry.getKey());
+                                hasAllele = true;
+                            }
+                        }
+                        if (hasAllele) samples.add(sample);
+                    });
 
-            // Return the populated table.
-            return table;
+            // Generate the allele and proteoform rows per feature start position.
+            List<Feature> features = storage.getFeatures().stream()
+                    .filter(feature -> featureNames.contains(feature.name))
+                    .toList();
+            Set<String> sampleNames = samples.stream().map(sample -> sample.name).collect(Collectors.toSet());
+            Iterator<Map.Entry<String, Map<String, String>>> rows = Table.rows(featuresByStart(features).stream().map(group -> {
+                TreeMap<String, Map<String, String>> groupRows = new TreeMap<>();
+                for (Feature feature : group) {
+                    boolean addProteoforms = feature.isCoding() && storage.runProteoformInference();
+                    Map<String, String> alleleCells = groupRows.computeIfAbsent("%s\tallele".formatted(feature.name), k -> new HashMap<>());
+                    Map<String, String> proteoformCells = addProteoforms
+                            ? groupRows.computeIfAbsent("%s\tproteoform".formatted(feature.name), k -> new HashMap<>())
+                            : null;
+                    for (Feature.Allele allele : feature.getAlleles()) {
+                        String alleleName = allele.getNameOrUid();
+                        String proteoformName = Constants.synonymous;
+                        if (addProteoforms) {
+                            String proteoformUid = allele.getAttributeOrDefault(Constants.$Allele_proteoform, Constants.synonymous);
+                            proteoformName = proteoformUid.equals(Constants.synonymous) ? Constants.synonymous : feature.getProteoform(proteoformUid).getNameOrUid();
+                        }
+                        for (String sampleName : allele.getOccurrence()) {
+                            if (!sampleNames.contains(sampleName)) continue;
+                            alleleCells.put(sampleName, alleleName);
+                            if (addProteoforms) proteoformCells.put(sampleName, proteoformName);
+                        }
+                    }
+                }
+                return groupRows;
+            }));
+            return new Table("name\ttype", samples.stream().map(sample -> sample.name).toList(), rows, Constants.synonymous);
         }
 
         /**
@@ -790,57 +1194,76 @@ public final class Musial {
          * <p>
          * This method creates a table with rows representing variants and columns representing
          * various attributes of each variant. The table can be filtered to include only specific
-         * positions, samples, and features based on the provided sets.
+         * regions, samples, and features based on the provided sets. Rows are sorted by position; rows at the
+         * same position are sorted by their identifier.
          *
-         * @param storage          The {@link Storage} instance containing the variants to be included in the table.
-         * @param includePositions A set of positions to include in the table. If empty, all positions are included.
-         * @param includeSamples   A set of sample names to include in the table. If empty, all samples are included.
-         * @param includeFeatures  A set of feature names to include in the table. If empty, all features are included.
+         * @param storage         The {@link Storage} instance containing the variants to be included in the table.
+         * @param includeRegions  The regions per contig name to include in the table. If empty, all positions are included.
+         * @param includeSamples  A set of sample names to include in the table. If empty, all samples are included.
+         * @param includeFeatures A set of feature names to include in the table. If empty, all features are included.
          * @return A {@link Table} object containing the variant information.
          */
-        private static Table variantTable(Storage storage, Set<String> includePositions, Set<String> includeSamples, Set<String> includeFeatures) {
-            // Initialize the table with the header and a comparator for sorting by position.
-            Table table = new Table("contig\tpos\tref\talt", (int) storage.getVariantsCount(),
-                    Comparator.comparingInt(i -> Integer.parseInt(i.split(Constants.TAB)[1])), Constants.EMPTY);
-
-            // Iterate through each contig in the storage.
-            storage.getContigs().forEach(contig ->
-                    // Iterate through each variant in the contig.
-                    contig.getVariants().forEach(variant -> {
-                        // Check if the variant's position is included in the filter set.
-                        if (includePositions.isEmpty() || includePositions.contains(String.valueOf(variant.a))) {
-                            // Retrieve variant information for the current variant.
-                            VariantInformation variantInfo = contig.getVariantInformation(variant.a, variant.b);
-
-                            // Check if the variant is associated with any of the included features.
-                            boolean hasFeature = includeFeatures.isEmpty() || includeFeatures.stream().anyMatch(variantInfo::hasOccurrence);
-
-                            // Check if the variant is associated with any of the included samples.
-                            boolean hasSample = includeSamples.isEmpty() || includeSamples.stream().anyMatch(
-                                    sample -> variantInfo.hasOccurrence(Attributable.sampleOccurrence, sample));
-
-                            // If the variant matches the feature and sample filters, add it to the table.
-                            if (hasFeature && hasSample) {
-                                // Create a list of tuples representing the variant's attributes.
-                                List<Tuple<String, String>> items = new ArrayList<>(List.of(
-                                        new Tuple<>("type", variantInfo.type.name())
-                                ));
-
-                                // Add additional attributes of the variant to the list.
-                                variantInfo.getAttributes().forEach((key, value) -> items.add(new Tuple<>(key, value)));
-
-                                // Add the occurrence information of the variant to the list.
-                                items.add(new Tuple<>("samples", String.join(Constants.COMMA, variantInfo.getSampleOccurrence())));
-
-                                // Add the variant's information to the table.
-                                table.addContent(contig.name + "\t" + variant.a + "\t" + variantInfo.reference + "\t" + variant.b, items);
-                            }
+        private static Table variantTable(Storage storage, Map<String, NavigableMap<Integer, Integer>> includeRegions,
+                                          Set<String> includeSamples, Set<String> includeFeatures) {
+            // Check if a variant is associated with any of the included features and samples.
+            Predicate<VariantInformation> included = variantInfo ->
+                    (includeFeatures.isEmpty() || includeFeatures.stream().anyMatch(variantInfo::hasOccurrence))
+                            && (includeSamples.isEmpty() || includeSamples.stream().anyMatch(
+                            sample -> variantInfo.hasOccurrence(Attributable.sampleOccurrence, sample)));
+            List<Contig> contigs = List.copyOf(storage.getContigs());
+
+            // Discover the column headers in order of the cell values (see variantItems), without creating the values.
+            Set<String> headers = new LinkedHashSet<>();
+            contigs.forEach(contig -> selectRegions(contig.getVariantsByPosition(), contig.name, includeRegions)
+                    .forEach(region -> region.values().forEach(variants -> variants.values().stream().filter(included)
+                            .forEach(variantInfo -> {
+                                headers.add("type");
+                                headers.addAll(variantInfo.getAttributes().keySet());
+                                headers.add("samples");
+                            }))));
+
+            // Generate the rows per position over the selected regions of all contigs, sorted by their identifier.
+            List<Tuple<Contig, NavigableMap<Integer, Map<String, VariantInformation>>>> sources = contigs.stream()
+                    .flatMap(contig -> selectRegions(contig.getVariantsByPosition(), contig.name, includeRegions).stream()
+                            .map(region -> new Tuple<>(contig, region)))
+                    .toList();
+            Iterator<Map.Entry<String, Map<String, String>>> rows = Table.rows(mergePositions(sources.stream().map(source -> source.b.navigableKeySet()).toList())
+                    .map(positionSources -> {
+                        int position = positionSources.a;
+                        TreeMap<String, Map<String, String>> positionRows = new TreeMap<>();
+                        for (int sourceIndex : positionSources.b) {
+                            Contig contig = sources.get(sourceIndex).a;
+                            sources.get(sourceIndex).b.get(position).forEach((alternativeBases, variantInfo) -> {
+                                if (included.test(variantInfo)) {
+                                    Table.addContent(positionRows,
+                                            contig.name + "\t" + position + "\t" + variantInfo.reference + "\t" + alternativeBases,
+                                            variantItems(variantInfo));
+                                }
+                            });
                         }
-                    })
-            );
+                        return positionRows;
+                    }));
+            return new Table("contig\tpos\tref\talt", headers, rows, Constants.EMPTY);
+        }
 
-            // Return the populated table.
-            return table;
+        /**
+         * Creates the cell values of a variant row.
+         *
+         * @param variantInfo The {@link VariantInformation} of the variant to create the cell values for.
+         * @return A list of key-value pairs representing the column header and its value.
+         */
+        private static List<Tuple<String, String>> variantItems(VariantInformation variantInfo) {
+            // Create a list of tuples representing the variant's attributes.
+            List<Tuple<String, String>> items = new ArrayList<>(List.of(
+                    new Tuple<>("type", variantInfo.type.name())
+            ));
+
+            // Add additional attributes of the variant to the list.
+            variantInfo.getAttributes().forEach((key, value) -> items.add(new Tuple<>(key, value)));
+
+            // Add the occurrence information of the variant to the list.
+            items.add(new Tuple<>("samples", String.join(Constants.COMMA, variantInfo.getSampleOccurrence())));
+            return items;
         }
 
         /**
@@ -848,42 +1271,96 @@ public final class Musial {
          * <p>
          * This method creates a table with rows representing variant calls and columns representing
          * the contig, position, reference, and sample-specific call information. The table can be
-         * filtered to include only specific samples and positions based on the provided sets.
+         * filtered to include only specific samples and regions based on the provided sets. Rows are sorted by
+         * position; rows at the same position are sorted by their identifier.
          *
-         * @param storage           The {@link Storage} instance containing the variant calls to be included in the table.
-         * @param includedSamples   A set of sample names to include in the table. If empty, all samples are included.
-         * @param includedPositions A set of positions to include in the table. If empty, all positions are included.
+         * @param storage         The {@link Storage} instance containing the variant calls to be included in the table.
+         * @param includedSamples A set of sample names to include in the table. If empty, all samples are included.
+         * @param includedRegions The regions per contig name to include in the table. If empty, all positions are included.
          * @return A {@link Table} object containing the variant call information.
          */
-        private static Table callMatrix(Storage storage, Set<String> includedSamples, Set<String> includedPositions) {
-            // Initialize the table with the header and a comparator for sorting by position.
-            Table table = new Table("contig\tposition\treference", (int) storage.getVariantsCount(),
-                    Comparator.comparingInt(s -> Integer.parseInt(s.split("\t")[1])), Constants.DOT);
+        private static Table callMatrix(Storage storage, Set<String> includedSamples, Map<String, NavigableMap<Integer, Integer>> includedRegions) {
+            List<Contig> contigs = List.copyOf(storage.getContigs());
 
-            // Stream through the samples in the storage, filtering based on the includedSamples set.
-            storage.getSamples().stream()
+            // Discover the samples (columns) with at least one included variant call.
+            List<Sample> samples = storage.getSamples().stream()
                     .filter(sample -> includedSamples.isEmpty() || includedSamples.contains(sample.name))
-                    .forEach(sample ->
-                            // Stream through the contigs for each sample.
-                            storage.getContigs().forEach(contig ->
-                                    // Stream through the variant calls for each contig, filtering based on the includedPositions set.
-                                    sample.getVariantCalls(contig.name).entrySet().stream()
-                                            .filter(variantCall -> includedPositions.isEmpty() || includedPositions.contains(String.valueOf(variantCall.getKey())))
-                                            .forEach(variantCall -> {
-                                                // Create a list of tuples representing the variant call's attributes.
-                                                List<Tuple<String, String>> items = List.of(new Tuple<>(sample.name, variantCall.getValue()));
-
-                                                // Add the variant call's information to the table.
-                                                table.addContent(
-                                                        contig.name + "\t" + variantCall.getKey() + "\t" + Sample.getReferenceOfCall(variantCall.getValue()),
-                                                        items
-                                                );
-                                            })
-                            )
-                    );
+                    .filter(sample -> contigs.stream().anyMatch(contig -> selectRegions(sample.getVariantCalls(contig.name), contig.name, includedRegions)
+                            .stream().anyMatch(region -> !region.isEmpty())))
+                    .toList();
+
+            // Collect the selected variant calls of each sample (column) per contig as {contig name, sample name, calls}.
+            List<Triple<String, String, NavigableMap<Integer, String>>> sources = contigs.stream()
+                    .flatMap(contig -> samples.stream().flatMap(sample ->
+                            selectRegions(sample.getVariantCalls(contig.name), contig.name, includedRegions).stream()
+                                    .map(region -> Triple.of(contig.name, sample.name, region))))
+                    .toList();
+
+            // Generate the rows per position over the selected regions of all contigs and samples, sorted by their identifier.
+            // Only the samples with a variant call at a position are visited.
+            Iterator<Map.Entry<String, Map<String, String>>> rows = Table.rows(mergePositions(sources.stream().map(source -> source.getRight().navigableKeySet()).toList())
+                    .map(positionSources -> {
+                        int position = positionSources.a;
+                        TreeMap<String, Map<String, String>> positionRows = new TreeMap<>();
+                        for (int sourceIndex : positionSources.b) {
+                            Triple<String, String, NavigableMap<Integer, String>> source = sources.get(sourceIndex);
+                            String variantCall = source.getRight().get(position);
+                            positionRows.computeIfAbsent(
+                                    source.getLeft() + "\t" + position + "\t" + Sample.getReferenceOfCall(variantCall),
+                                    k -> new HashMap<>()
+                            ).put(source.getMiddle(), variantCall);
+                        }
+                        return positionRows;
+                    }));
+            return new Table("contig\tposition\treference", samples.stream().map(sample -> sample.name).toList(), rows, Constants.DOT);
+        }
+
+        /**
+         * Groups features by their start position.
+         *
+         * @param features The features to group.
+         * @return The groups of features, in ascending order of their start position.
+         */
+        private static Collection<List<Feature>> featuresByStart(Collection<Feature> features) {
+            TreeMap<Integer, List<Feature>> groups = new TreeMap<>();
+            features.forEach(feature -> groups.computeIfAbsent(feature.start, k -> new ArrayList<>()).add(feature));
+            return groups.values();
+        }
+
+        /**
+         * Merges sorted sets of positions into a stream of distinct positions in ascending order.
+         * <p>
+         * The sets are merged lazily with a priority queue, i.e., only the next position of each set is held at a time.
+         * Each position is emitted with the indices of the sets containing it, such that only these have to be visited.
+         *
+         * @param positionSets The sorted sets of positions to merge.
+         * @return A stream of all distinct positions of the sets in ascending order, each with the ascending indices of
+         * the sets containing it.
+         */
+        private static Stream<Tuple<Integer, List<Integer>>> mergePositions(List<? extends SortedSet<Integer>> positionSets) {
+            // Hold the next position of each set with the index of the set.
+            List<Iterator<Integer>> iterators = new ArrayList<>(positionSets.size());
+            PriorityQueue<Tuple<Integer, Integer>> heads = new PriorityQueue<>(Comparator.comparingInt(head -> head.a));
+            for (int i = 0; i < positionSets.size(); i++) {
+                Iterator<Integer> iterator = positionSets.get(i).iterator();
+                iterators.add(iterator);
+                if (iterator.hasNext()) heads.add(new Tuple<>(iterator.next(), i));
+            }
 
-            // Return the populated table.
-            return table;
+            // Poll the smallest position and advance all sets at this position.
+            Supplier<Tuple<Integer, List<Integer>>> next = () -> {
+                if (heads.isEmpty()) return null;
+                int position = heads.peek().a;
+                List<Integer> indices = new ArrayList<>();
+                while (!heads.isEmpty() && heads.peek().a == position) {
+                    int index = heads.poll().b;
+                    indices.add(index);
+                    if (iterators.get(index).hasNext()) heads.add(new Tuple<>(iterators.get(index).next(), index));
+                }
+                Collections.sort(indices);
+                return new Tuple<>(position, indices);
+            };
+            return Stream.iterate(next.get(), Objects::nonNull, positionSources -> next.get());
         }
     }
 
@@ -1317,4 +1794,225 @@ public final class Musial {
 
     }
 
+    /**
+     * Provides functionality for exporting the variants of a MUSIAL storage file as a binary genotype matrix in
+     * PLINK 1 format (<a href="https://www.cog-genomics.org/plink/1.9/formats">cog-genomics.org/plink/1.9/formats</a>).
+     * <p>
+     * The export comprises three files:
+     * <ul>
+     *     <li>{@code .fam}: One line per sample, with the sample name as family and individual identifier.</li>
+     *     <li>{@code .bim}: One line per variant, with the alternative (A1) and reference (A2) base content.</li>
+     *     <li>{@code .bed}: The variant-major genotype matrix, storing 2 bits per genotype.</li>
+     * </ul>
+     * Each variant, i.e., each alternative base content at a position, is exported as a bi-allelic variant. Since
+     * samples are haploid, genotypes are encoded as homozygous for the alternative allele if the sample occurs in the
+     * variant, as missing if the sample has a filtered (low frequency or low coverage) call covering the position, and
+     * as homozygous for the reference allele otherwise. Variants of filtered calls stored as ambiguous bases are skipped.
+     * <p>
+     * The genotypes are streamed per variant from the position-ordered variants of each contig, such that only a single
+     * row of the matrix and the next filtered call of each sample are held in memory.
+     */
+    static class Genotype {
+
+        /**
+         * Magic number of PLINK 1 {@code .bed} files, followed by the variant-major mode flag.
+         */
+        private static final byte[] bedHeader = {0x6C, 0x1B, 0x01};
+
+        /**
+         * Two-bit genotype code of a sample homozygous for the first (alternative) allele.
+         */
+        private static final int alternativeCode = 0b00;
+
+        /**
+         * Two-bit genotype code of a missing genotype.
+         */
+        private static final int missingCode = 0b01;
+
+        /**
+         * Executes the genotype export task for the MUSIAL application.
+         * <p>
+         * This method validates the output directory, reads the storage file, and writes the {@code .fam},
+         * {@code .bim}, and {@code .bed} files of the selected samples to the output directory.
+         *
+         * @throws IOException     If an I/O error occurs during file operations.
+         * @throws MusialException If a MUSIAL-specific error occurs, such as missing samples or invalid paths.
+         */
+        private static void run() throws IOException, MusialException {
+            // Log and start the storage reading process.
+            Logging.logInfo("Read storage.");
+            File inputFile = new File((String) CLI.parameters.get("input"));
+            Storage storage = Storage.Factory.deserialize(inputFile);
+
+            // Validate the output file parameter.
+            String output = (String) CLI.parameters.get("output");
+            if (output.equals("parent")) {
+                outputDirectory = inputFile.getParentFile();
+            } else {
+                File outputFile = new File(output);
+                if (!outputFile.isDirectory()) {
+                    throw new IOException("Output path is not a directory.");
+                }
+                outputDirectory = outputFile;
+                FileUtils.createParentDirectories(outputDirectory);
+            }
+
+            // Select the samples to export, in order of the storage.
+            //noinspection unchecked
+            Set<String> sampleNames = (Set<String>) CLI.parameters.get("samples");
+            List<Sample> samples = storage.getSamples().stream()
+                    .filter(sample -> sampleNames.isEmpty() || sampleNames.contains(sample.name))
+                    .toList();
+            if (samples.isEmpty()) {
+                throw new MusialException("No samples to export. Check your samples (-s) parameter.");
+            }
+
+            // Write the genotypes to the .fam, .bim, and .bed file.
+            String prefix = outputDirectory + File.separator + "musial_genotypes_%s".formatted(runId);
+            Logging.logInfo("Write genotypes of %d samples.".formatted(samples.size()));
+            int variantCount = write(storage, samples, prefix);
+            Logging.logInfo("Write %d variants to %s.(bed|bim|fam).".formatted(variantCount, prefix));
+
+            // Log the completion of the task with the execution time.
+            Logging.logDone("Execution time %.2f seconds.".formatted((System.currentTimeMillis() - startTime) / 1000.0));
+        }
+
+        /**
+         * Writes the genotypes of the specified samples to the {@code .fam}, {@code .bim}, and {@code .bed} file with
+         * the specified path prefix.
+         *
+         * @param storage The {@link Storage} to export.
+         * @param samples The samples to export, in order of the {@code .fam} file.
+         * @param prefix  The path of the output files without extension.
+         * @return The number of written variants.
+         * @throws IOException If an I/O error occurs while writing.
+         */
+        static int write(Storage storage, List<Sample> samples, String prefix) throws IOException {
+            Map<String, Integer> sampleIndices = new HashMap<>(samples.size());
+            for (int i = 0; i < samples.size(); i++) sampleIndices.put(samples.get(i).name, i);
+
+            // Write the samples to the .fam file.
+            try (BufferedWriter writer = Files.newBufferedWriter(Path.of(prefix + ".fam"), StandardCharsets.UTF_8)) {
+                for (Sample sample : samples) {
+                    writer.write("%s\t%s\t0\t0\t0\t-9\n".formatted(sample.name, sample.name));
+                }
+            }
+
+            // Stream the variants of each contig to the .bim and .bed file.
+            int variantCount = 0;
+            try (BufferedWriter bim = Files.newBufferedWriter(Path.of(prefix + ".bim"), StandardCharsets.UTF_8);
+                 OutputStream bed = new BufferedOutputStream(Files.newOutputStream(Path.of(prefix + ".bed")))) {
+                bed.write(bedHeader);
+                byte[] row = new byte[(samples.size() + 3) / 4];
+                for (Contig contig : storage.getContigs()) {
+                    variantCount += writeContig(contig, samples, sampleIndices, row, bim, bed);
+                }
+            }
+            return variantCount;
+        }
+
+        /**
+         * Writes the variants of a single contig to the {@code .bim} and {@code .bed} file.
+         * <p>
+         * The filtered calls of all samples are merged in order of their position with a priority queue. Each filtered
+         * call is active from its position up to the end of its reference base content, during which the genotypes of
+         * the sample are missing.
+         *
+         * @param contig        The {@link Contig} whose variants are written.
+         * @param samples       The samples to write genotypes for, in order of the {@code .fam} file.
+         * @param sampleIndices The index of each sample name in {@code samples}.
+         * @param row           A buffer for a single row of the genotype matrix.
+         * @param bim           The writer of the {@code .bim} file.
+         * @param bed           The output stream of the {@code .bed} file.
+         * @return The number of written variants.
+         * @throws IOException If an I/O error occurs while writing.
+         */
+        private static int writeContig(Contig contig, List<Sample> samples, Map<String, Integer> sampleIndices, byte[] row,
+                                       Writer bim, OutputStream bed) throws IOException {
+            // Hold the next filtered call of each sample as {start, end, sample index}, ordered by start position.
+            List<Iterator<int[]>> filteredCalls = new ArrayList<>(samples.size());
+            PriorityQueue<int[]> nextFilteredCalls = new PriorityQueue<>(Comparator.comparingInt(call -> call[0]));
+            for (int i = 0; i < samples.size(); i++) {
+                int sampleIndex = i;
+                Iterator<int[]> calls = samples.get(i).getVariantCalls(contig.name).entrySet().stream()
+                        .filter(call -> call.getValue().startsWith(Constants.lowFrequencyCallPrefix)
+                                || call.getValue().startsWith(Constants.lowCoverageCallPrefix))
+                        .map(call -> new int[]{call.getKey(), call.getKey() + referenceLength(call.getValue()) - 1, sampleIndex})
+                        .iterator();
+                filteredCalls.add(calls);
+                if (calls.hasNext()) nextFilteredCalls.add(calls.next());
+            }
+
+            // Hold the filtered calls covering the current position, ordered by end position.
+            PriorityQueue<int[]> activeFilteredCalls = new PriorityQueue<>(Comparator.comparingInt(call -> call[1]));
+
+            int variantCount = 0;
+            for (Map.Entry<Integer, Map<String, VariantInformation>> entry : contig.getVariantsByPosition().entrySet()) {
+                int position = entry.getKey();
+
+                // Activate filtered calls starting up to this position and drop those ending upstream.
+                while (!nextFilteredCalls.isEmpty() && nextFilteredCalls.peek()[0] <= position) {
+                    int[] call = nextFilteredCalls.poll();
+                    activeFilteredCalls.add(call);
+                    Iterator<int[]> calls = filteredCalls.get(call[2]);
+                    if (calls.hasNext()) nextFilteredCalls.add(calls.next());
+                }
+                while (!activeFilteredCalls.isEmpty() && activeFilteredCalls.peek()[1] < position) {
+                    activeFilteredCalls.poll();
+                }
+
+                for (Map.Entry<String, VariantInformation> variant : entry.getValue().entrySet()) {
+                    String alternative = SequenceOperations.stripGaps(variant.getKey());
+                    // Skip variants of filtered calls stored as ambiguous bases.
+                    if (alternative.chars().allMatch(base -> base == Constants.anyNucleotide.charAt(0))) continue;
+                    String reference = variant.getValue().getReferenceBaseString(true);
+
+                    // Initialize all genotypes as reference and set the alternative and missing genotypes.
+                    Arrays.fill(row, (byte) 0xFF);
+                    for (String sampleName : variant.getValue().getSampleOccurrence()) {
+                        Integer sampleIndex = sampleIndices.get(sampleName);
+                        if (sampleIndex != null) setGenotype(row, sampleIndex, alternativeCode);
+                    }
+                    for (int[] call : activeFilteredCalls) {
+                        setGenotype(row, call[2], missingCode);
+                    }
+                    // Unused bits of the last byte are expected to be zero.
+                    int remainder = samples.size() % 4;
+                    if (remainder != 0) row[row.length - 1] &= (byte) ((1 << (2 * remainder)) - 1);
+                    bed.write(row);
+
+                    bim.write("%s\t%s:%d:%s:%s\t0\t%d\t%s\t%s\n".formatted(
+                            contig.name, contig.name, position, reference, alternative, position, alternative, reference));
+                    variantCount++;
+                }
+            }
+            return variantCount;
+        }
+
+        /**
+         * Sets the two-bit genotype code of a sample in a row of the genotype matrix.
+         * <p>
+         * Genotypes are packed in order of the samples, starting with the low-order bits of each byte.
+         *
+         * @param row         The row of the genotype matrix.
+         * @param sampleIndex The index of the sample.
+         * @param code        The two-bit genotype code.
+         */
+        private static void setGenotype(byte[] row, int sampleIndex, int code) {
+            int shift = (sampleIndex & 3) * 2;
+            row[sampleIndex >> 2] = (byte) ((row[sampleIndex >> 2] & ~(0b11 << shift)) | (code << shift));
+        }
+
+        /**
+         * Determines the length of the reference base content of a variant call ({@code CALL_INDEX;DP;GQ;REF_0:...}).
+         *
+         * @param call The variant call.
+         * @return The length of the reference base content of the call.
+         */
+        private static int referenceLength(String call) {
+            int referenceStart = call.indexOf(';', call.indexOf(';', call.indexOf(';') + 1) + 1) + 1;
+            return call.indexOf(':', referenceStart) - referenceStart;
+        }
+    }
+
 }
\ No newline at end of file
@@ -86,6 +86,7 @@ public final class CLI {
             case EXPAND -> CLI.Expand.options();
             case VIEW -> CLI.View.options();
             case SEQUENCE -> CLI.Sequence.options();
+            case GENOTYPE -> CLI.Genotype.options();
         }
 
         // Initialize help message formatter and default command line parser.
@@ -103,6 +104,7 @@ public final class CLI {
                     \033[47m\033[1;30m expand   \033[0m : Expand an existing storage file from variant call files.
                     \033[47m\033[1;30m view     \033[0m : View the content - features, samples or variants - and their attributes, of a MUSIAL storage file.
                     \033[47m\033[1;30m sequence \033[0m : Export sequences of features from a MUSIAL storage file.
+                    \033[47m\033[1;30m genotype \033[0m : Export a binary genotype matrix (PLINK 1 .bed/.bim/.fam) of variants from a MUSIAL storage file.
 
                     Call `java -jar %s-%s.jar <task> [-h|--help]` for more information.
                     """.formatted(Musial.softwareName, Musial.softwareVersion);
@@ -144,6 +146,7 @@ public final class CLI {
                 case EXPAND -> CLI.Expand.transfer();
                 case VIEW -> CLI.View.transfer();
                 case SEQUENCE -> CLI.Sequence.transfer();
+                case GENOTYPE -> CLI.Genotype.transfer();
                 default -> exitNotRecognized(args);
             }
         } catch (ParseException | IOException | ProcessingException e) {
@@ -280,6 +283,11 @@ public final class CLI {
          *   <li>`-m` or `--info`: Path to a `.tsv` or `.csv` file specifying sample annotations.</li>
          *   <li>`-o` or `--output`: Path to write the output file (default is to overwrite the input file).</li>
          *   <li>`-p` or `--preview`: Reports novel entries without writing the expanded storage to a file.</li>
+         *   <li>`-t` or `--threads`: Number of threads to use for parallelizable steps (default is 1).</li>
+         *   <li>`-s` or `--fullStatistics`: Recompute the statistics of all samples instead of only the novel ones.</li>
+         *   <li>`-c` or `--snpEffCache`: Directory to cache built SnpEff databases and variant annotations in.</li>
+         *   <li>`-e` or `--snpEffInProcess`: Run SnpEff in the MUSIAL process instead of separate processes.</li>
+         *   <li>`-n` or `--nativeEffects`: Predict the effects of coding SNVs without SnpEff, where possible.</li>
          * </ul>
          */
         private static void options() {
@@ -309,6 +317,28 @@ public final class CLI {
                     .longOpt("preview")
                     .desc("Only report on novel entries without writing the updated storage.")
                     .build());
+            options.addOption(Option.builder("t")
+                    .longOpt("threads")
+                    .desc("Number of threads to use for parallelizable steps, e.g., sequence type inference (default: 1).")
+                    .hasArg()
+                    .build());
+            options.addOption(Option.builder("s")
+                    .longOpt("fullStatistics")
+                    .desc("Recompute the statistics of all samples and report deviations from the stored ones, instead of only computing the statistics of novel samples.")
+                    .build());
+            options.addOption(Option.builder("c")
+                    .longOpt("snpEffCache")
+                    .desc("Directory to cache built SnpEff databases and variant annotations in; both are re-used for unchanged references and features (default: no caching).")
+                    .hasArg()
+                    .build());
+            options.addOption(Option.builder("e")
+                    .longOpt("snpEffInProcess")
+                    .desc("Run SnpEff within the MUSIAL process from an isolated class loader instead of separate processes.")
+                    .build());
+            options.addOption(Option.builder("n")
+                    .longOpt("nativeEffects")
+                    .desc("Predict the effects of SNVs within the coding sequence of a single-exon feature without SnpEff; other variants are annotated with SnpEff.")
+                    .build());
         }
 
         /**
@@ -321,6 +351,11 @@ public final class CLI {
             parameters.put("vcfMeta", arguments.getOptionValue("m"));
             parameters.put("output", arguments.getOptionValue("o", "overwrite"));
             parameters.put("write", !arguments.hasOption("p"));
+            parameters.put("threads", arguments.getOptionValue("t", "1"));
+            parameters.put("fullStatistics", arguments.hasOption("s"));
+            parameters.put("snpEffCache", arguments.getOptionValue("c"));
+            parameters.put("snpEffInProcess", arguments.hasOption("e"));
+            parameters.put("nativeEffects", arguments.hasOption("n"));
         }
 
     }
@@ -343,6 +378,7 @@ public final class CLI {
          *   <li>`-C` or `--content`: Specifies the content type (`features`, `samples`, `variants`, `alleles`, `sampleSequenceTypes`, or `variantCalls`).</li>
          *   <li>`-f` or `--filter`: List of feature/sample names or positions to filter the output (default is no filters).</li>
          *   <li>`-o` or `--output`: Path to write the output file (default is stdout).</li>
+         *   <li>`-s` or `--sparse`: Writes `type` and `call` matrices in sparse long format.</li>
          * </ul>
          */
         private static void options() {
@@ -360,7 +396,7 @@ public final class CLI {
                     .build());
             options.addOption(Option.builder("f")
                     .longOpt("filter")
-                    .desc("List of feature-, sample names, and/or positions for which the output is to be filtered (default: no filters). Entries may be ignored depending on the content.")
+                    .desc("List of feature-, sample names, positions, regions (contig:start-end), and/or BED files (.bed) for which the output is to be filtered (default: no filters). Regions take precedence over equally named features and samples. Entries may be ignored depending on the content.")
                     .hasArgs()
                     .build());
             options.addOption(Option.builder("o")
@@ -368,6 +404,10 @@ public final class CLI {
                     .desc("Path to directory or file to write the output to (default: stdout).")
                     .hasArg()
                     .build());
+            options.addOption(Option.builder("s")
+                    .longOpt("sparse")
+                    .desc("Write type and call matrices in sparse long format, i.e., one line per non-default cell (default: dense).")
+                    .build());
         }
 
         /**
@@ -383,6 +423,7 @@ public final class CLI {
             parameters.put("output", arguments.hasOption("o")
                     ? arguments.getOptionValue("o")
                     : "stdout");
+            parameters.put("sparse", arguments.hasOption("s"));
         }
 
     }
@@ -479,4 +520,58 @@ public final class CLI {
 
     }
 
+    /**
+     * Handles the genotype export task for the CLI.
+     * <p>
+     * This class defines the command-line options and validation logic for the genotype export task.
+     * It allows users to specify input files, samples, and output paths for exporting a binary
+     * genotype matrix in PLINK 1 format from a MUSIAL storage file.
+     */
+    private static class Genotype implements Task {
+
+        /**
+         * Defines the command-line options for the genotype export task.
+         * <p>
+         * This method adds the following options:
+         * <ul>
+         *   <li>`-I` or `--input`: Path to the input `.json(.gz)` file generated with the build task.</li>
+         *   <li>`-s` or `--samples`: List of sample names to restrict the genotype export.</li>
+         *   <li>`-o` or `--output`: Path to a directory to write the output (default is the input storage directory).</li>
+         * </ul>
+         */
+        private static void options() {
+            options.addOption(Option.builder("I")
+                    .longOpt("input")
+                    .desc("Path to a .json(.gz) file generated with the build task of MUSIAL.")
+                    .hasArg()
+                    .required()
+                    .build());
+            options.addOption(Option.builder("s")
+                    .longOpt("samples")
+                    .desc("List of sample names to restrict the genotype export to.")
+                    .hasArgs()
+                    .build());
+            options.addOption(Option.builder("o")
+                    .longOpt("output")
+                    .desc("Path to a directory to write the output files to (default: parent of input).")
+                    .hasArg()
+                    .build());
+        }
+
+        /**
+         * Transfers the command-line arguments for the genotype export task.
+         */
+        private static void transfer() {
+            parameters = new HashMap<>();
+            parameters.put("input", arguments.getOptionValue("I"));
+            parameters.put("samples", arguments.hasOption("s")
+                    ? new HashSet<>(Arrays.stream(arguments.getOptionValues("s")).toList())
+                    : new HashSet<>());
+            parameters.put("output", arguments.hasOption("o")
+                    ? arguments.getOptionValue("o")
+                    : "parent");
+        }
+
+    }
+
 }
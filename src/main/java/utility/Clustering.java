@@ -18,18 +18,59 @@ import java.util.logging.Logger;
 /**
  * Provides functionality for clustering data using the HDBSCAN algorithm (see <a href="https://tribuo.org/">https://tribuo.org/</a>).
  * <p>
- * The static implementation allows to re-use the trainer and model and provides methods to
- * add samples (not {@link datastructure.Sample} instances, but data points), training and
- * resetting the model, as well as retrieving clustering results.
+ * Each instance holds its own trainer, dataset and model and provides methods to add samples (not
+ * {@link datastructure.Sample} instances, but data points), training the model, as well as retrieving clustering
+ * results. As instances do not share mutable state, distinct datasets (e.g., the alleles of distinct features) can be
+ * clustered concurrently; the trainer configuration is shared and the trainer's logging is suppressed once.
  * <p>
  * The implementation currently only supports the clustering based on variants, i.e. each
  * feature is defined by a position and alternative base in the context of {@link datastructure.Feature.Allele}s,
  * {@link datastructure.Feature.Proteoform}s or {@link datastructure.Sample}s and considered
  * a binary feature (weight or value of 1.0). These are compared with a Manhattan distanc
  * (L1 distance).
+ * <p>
+ * Instances may be configured to cluster large datasets approximately, i.e., samples are binned by MinHash
+ * locality-sensitive hashing of their variant sets and each bin is clustered separately (see {@link #train()}); bins
+ * without inner cluster structure are labelled as a single cluster.
  */
 public final class Clustering {
 
+    /**
+     * Minimum cluster size of the HDBSCAN trainer.
+     */
+    private static final int minimumClusterSize = 4;
+
+    /**
+     * Number of neighbours (k) used to compute core distances by the HDBSCAN trainer.
+     */
+    private static final int neighbours = 4;
+
+    /**
+     * Logger of the HDBSCAN trainer; a strong reference is kept, so that the suppression of its output is not lost
+     * if the logger would otherwise be garbage collected.
+     */
+    private static final Logger trainerLogger = Logger.getLogger(HdbscanTrainer.class.getName());
+
+    static {
+        trainerLogger.setLevel(Level.OFF);
+    }
+
+    /**
+     * Number of MinHash functions used to sketch the variant sets of samples in approximate clustering.
+     */
+    private static final int minHashFunctions = 32;
+
+    /**
+     * Number of consecutive MinHash values per locality-sensitive hashing band; {@link #minHashFunctions} divided by
+     * this value yields the number of bands.
+     */
+    private static final int minHashBandRows = 4;
+
+    /**
+     * Seeds of the MinHash functions; fixed, so that approximate clustering results are reproducible.
+     */
+    private static final long[] minHashSeeds = new SplittableRandom(minHashFunctions).longs(minHashFunctions).toArray();
+
     /**
      * Trainer for the HDBSCAN clustering algorithm with parameters:
      * <ul>
@@ -38,29 +79,52 @@ public final class Clustering {
      *     <li>Nearest neighbour query a k-d tree search</li>
      *     <li>Number of neighbours (k): 4</li>
      * </ul>
+     * Trainers are not thread-safe; hence, each instance uses its own trainer. The number of threads used by the trainer
+     * for nearest neighbour queries is specified per instance, so that concurrently clustered datasets do not exceed
+     * the number of threads specified by {@link Musial#threads} in total.
      */
-    private static final HdbscanTrainer trainer = new HdbscanTrainer(4, new L1Distance(), 4, 4, NeighboursQueryFactoryType.KD_TREE);
+    private final HdbscanTrainer trainer;
 
     /**
-     * The trained HDBSCAN model. Initially null until training is performed.
+     * Number of threads used by the HDBSCAN trainer for nearest neighbour queries.
      */
-    private static HdbscanModel model = null;
+    private final int trainerThreads;
 
     /**
-     * The clustering factory used to create clustering labels.
+     * Number of samples above which the dataset is clustered approximately (see {@link #train()}), or 0 if the dataset
+     * is always clustered exactly.
      */
-    private static final ClusteringFactory factory = new ClusteringFactory();
+    private final int approximationThreshold;
 
     /**
-     * Dataset to store the samples for clustering.
+     * The trained HDBSCAN model. Initially null until training is performed.
      */
-    private static final MutableDataset<ClusterID> dataset
-            = new MutableDataset<>(new SimpleDataSourceProvenance(Musial.runId, factory), factory);
+    private HdbscanModel model = null;
+
+    /**
+     * The clustering result of approximate clustering. Null, unless the dataset was clustered approximately.
+     */
+    private List<Entry> approximateResult = null;
 
     /**
      * List to store the names of the samples in the dataset.
      */
-    private static final List<String> names = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * The variant sets of the samples in the dataset, as sorted arrays of variant identifiers.
+     */
+    private final List<int[]> variantSets = new ArrayList<>();
+
+    /**
+     * Dense integer identifiers of the distinct variants added to the dataset, by position and alternative content.
+     */
+    private final HashMap<Integer, HashMap<String, Integer>> variantIds = new HashMap<>();
+
+    /**
+     * Feature names of the distinct variants added to the dataset, indexed by their identifier.
+     */
+    private final List<String> variantNames;
 
     /**
      * A record to represent a clustering result entry.
@@ -74,34 +138,67 @@ public final class Clustering {
     }
 
     /**
-     * Resets the clustering state by clearing the dataset, labels, and model.
+     * Constructs a new instance that always clusters its dataset exactly with a single trainer thread.
+     */
+    public Clustering() {
+        this(0, 1);
+    }
+
+    /**
+     * Constructs a new instance that clusters its dataset approximately if it contains more samples than the
+     * specified threshold.
+     *
+     * @param approximationThreshold The number of samples above which the dataset is clustered approximately; 0 to
+     *                               always cluster the dataset exactly.
+     * @param trainerThreads         The number of threads used by the HDBSCAN trainer; callers that cluster several
+     *                               datasets concurrently should pass 1.
+     */
+    public Clustering(int approximationThreshold, int trainerThreads) {
+        this(approximationThreshold, trainerThreads, new ArrayList<>());
+    }
+
+    /**
+     * Constructs a new instance sharing the specified variant feature names.
+     *
+     * @param approximationThreshold The number of samples above which the dataset is clustered approximately.
+     * @param trainerThreads         The number of threads used by the HDBSCAN trainer.
+     * @param variantNames           Feature names of variants, indexed by their identifier.
      */
-    public static void reset() {
-        dataset.clear();
-        names.clear();
-        model = null;
+    private Clustering(int approximationThreshold, int trainerThreads, List<String> variantNames) {
+        this.approximationThreshold = approximationThreshold;
+        this.trainerThreads = Math.max(1, trainerThreads);
+        this.trainer = new HdbscanTrainer(minimumClusterSize, new L1Distance(), neighbours, this.trainerThreads,
+                NeighboursQueryFactoryType.KD_TREE);
+        this.variantNames = variantNames;
     }
 
     /**
      * Adds a sample to the dataset for clustering.
+     * <p>
+     * Each distinct variant, i.e., position and value, is assigned a dense integer identifier once per instance,
+     * whose feature name is shared by all samples with the variant. As the L1 distance of binary feature vectors
+     * does not depend on the naming or order of the features, this does not affect the clustering.
      *
      * @param label    The label of the sample.
      * @param variants A map of feature positions and their corresponding values.
      */
-    public static void addToDataset(String label, Map<Integer, String> variants) {
+    public void addToDataset(String label, Map<Integer, String> variants) {
         if (variants.isEmpty()) return;
 
-        // Generate feature names by combining positions and values.
-        String[] featureNames = variants.keySet().stream()
-                .map(pos -> pos + variants.get(pos))
-                .toArray(String[]::new);
-
-        // Initialize feature values to 1.0.
-        double[] featureValues = new double[variants.size()];
-        Arrays.fill(featureValues, 1.0);
+        // Look up (or assign) the identifier of each variant.
+        int[] variantSet = new int[variants.size()];
+        int i = 0;
+        for (Map.Entry<Integer, String> variant : variants.entrySet()) {
+            variantSet[i++] = variantIds.computeIfAbsent(variant.getKey(), position -> new HashMap<>(4))
+                    .computeIfAbsent(variant.getValue(), content -> {
+                        variantNames.add(String.valueOf(variantNames.size()));
+                        return variantNames.size() - 1;
+                    });
+        }
+        Arrays.sort(variantSet);
 
-        // Add the sample to the dataset and store its label.
-        dataset.add(new ArrayExample<>(factory.getUnknownOutput(), featureNames, featureValues));
+        // Store the sample's variant set and its label.
+        variantSets.add(variantSet);
         names.add(label);
     }
 
@@ -110,16 +207,215 @@ public final class Clustering {
      *
      * @return {@code true} if the dataset has at least one sample, {@code false} otherwise.
      */
-    public static boolean hasData() {
-        return dataset.size() > 0;
+    public boolean hasData() {
+        return !names.isEmpty();
+    }
+
+    /**
+     * Checks if the dataset was clustered approximately by the last call of {@link #train()}.
+     *
+     * @return {@code true} if the dataset was clustered approximately, {@code false} otherwise.
+     */
+    public boolean isApproximate() {
+        return Objects.nonNull(approximateResult);
     }
 
     /**
      * Trains the HDBSCAN model using the current dataset.
+     * <p>
+     * If the dataset contains more samples than the approximation threshold, the samples are first divided into bins
+     * of potentially similar samples and each bin is clustered separately (see {@link #trainApproximate()}).
      */
-    public static void train() {
-        Logger.getLogger(HdbscanTrainer.class.getName()).setLevel(Level.OFF);
+    public void train() {
+        if (approximationThreshold > 0 && names.size() > approximationThreshold) {
+            approximateResult = trainApproximate();
+            return;
+        }
+        // Build dataset of binary feature vectors; feature names are shared per variant.
+        ClusteringFactory factory = new ClusteringFactory();
+        MutableDataset<ClusterID> dataset = new MutableDataset<>(new SimpleDataSourceProvenance(Musial.runId, factory), factory);
+        for (int[] variantSet : variantSets) {
+            String[] featureNames = new String[variantSet.length];
+            for (int i = 0; i < variantSet.length; i++)
+                featureNames[i] = variantNames.get(variantSet[i]);
+            // Initialize feature values to 1.0.
+            double[] featureValues = new double[variantSet.length];
+            Arrays.fill(featureValues, 1.0);
+            dataset.add(new ArrayExample<>(factory.getUnknownOutput(), featureNames, featureValues));
+        }
         model = trainer.train(dataset);
+        approximateResult = null;
+    }
+
+    /**
+     * Clusters the dataset approximately by MinHash sketching and locality-sensitive hashing (LSH).
+     * <p>
+     * The variant set of each sample is sketched by {@link #minHashFunctions} MinHash values, whose consecutive
+     * groups of {@link #minHashBandRows} values form the LSH bands. Samples sharing the values of at least one band
+     * are likely to have similar variant sets (the probability grows with their Jaccard similarity) and are joined
+     * into one bin. Bins that still exceed the approximation threshold are split by the values of their first one,
+     * two, ... bands. Each bin is then clustered exactly with HDBSCAN, i.e., core distances and neighbours are only
+     * computed within bins.
+     * <p>
+     * As HDBSCAN never selects the root of its cluster hierarchy, it cannot report a bin that holds a single natural
+     * cluster as one cluster, but labels all of its samples as outliers. Hence, bins in which HDBSCAN finds no cluster,
+     * as well as bins with less than twice the minimum cluster size that cannot hold two clusters, are considered
+     * uniform: all uniform bins of one component form a single cluster (with outlier scores of 0), unless the
+     * component's uniform bins hold less than {@link #minimumClusterSize} samples, which remain outliers (with outlier
+     * scores of 1). Bins with inner cluster structure keep the labels found by HDBSCAN. The cluster labels are made unique and the result is constructed as by
+     * {@link #getClusteringResult()}. Samples of distinct components never share a cluster.
+     *
+     * @return A list of clustering result entries, each containing the name, label, index, and outlier score.
+     */
+    private List<Entry> trainApproximate() {
+        int sampleCount = names.size();
+        int bands = minHashFunctions / minHashBandRows;
+
+        // Compute MinHash signatures of all variant sets.
+        int[][] signatures = new int[sampleCount][minHashFunctions];
+        for (int i = 0; i < sampleCount; i++) {
+            Arrays.fill(signatures[i], Integer.MAX_VALUE);
+            for (int variantId : variantSets.get(i))
+                for (int h = 0; h < minHashFunctions; h++)
+                    signatures[i][h] = Math.min(signatures[i][h], minHash(variantId, h));
+        }
+
+        // Join samples that share the values of at least one band (union-find).
+        int[] parents = new int[sampleCount];
+        for (int i = 0; i < sampleCount; i++)
+            parents[i] = i;
+        for (int band = 0; band < bands; band++) {
+            HashMap<Long, Integer> buckets = new HashMap<>();
+            for (int i = 0; i < sampleCount; i++) {
+                Integer first = buckets.putIfAbsent(bandKey(signatures[i], band, band + 1), i);
+                if (Objects.nonNull(first))
+                    parents[find(parents, i)] = find(parents, first);
+            }
+        }
+        LinkedHashMap<Integer, List<Integer>> components = new LinkedHashMap<>();
+        for (int i = 0; i < sampleCount; i++)
+            components.computeIfAbsent(find(parents, i), root -> new ArrayList<>()).add(i);
+
+        // Split oversized components and cluster each bin exactly.
+        int[] labels = new int[sampleCount];
+        double[] outlierScores = new double[sampleCount];
+        int labelOffset = 0;
+        for (List<Integer> component : components.values()) {
+            List<List<Integer>> bins = new ArrayList<>();
+            splitBin(component, signatures, 1, bins);
+
+            // Samples of uniform bins of the component, which form a single cluster.
+            List<Integer> uniformSamples = new ArrayList<>();
+            for (List<Integer> bin : bins) {
+                if (bin.size() < 2 * minimumClusterSize) {
+                    uniformSamples.addAll(bin);
+                    continue;
+                }
+                Clustering binClustering = new Clustering(0, trainerThreads, variantNames);
+                for (int i : bin) {
+                    binClustering.variantSets.add(variantSets.get(i));
+                    binClustering.names.add(names.get(i));
+                }
+                binClustering.train();
+                List<Integer> binLabels = binClustering.model.getClusterLabels();
+                List<Double> binOutlierScores = binClustering.model.getOutlierScores();
+                for (int k = 0; k < bin.size(); k++)
+                    outlierScores[bin.get(k)] = binOutlierScores.get(k);
+                if (binLabels.stream().allMatch(label -> label == 0)) {
+                    uniformSamples.addAll(bin);
+                    continue;
+                }
+                int maximalLabel = 0;
+                for (int k = 0; k < bin.size(); k++) {
+                    int label = binLabels.get(k);
+                    // Outliers (label 0) remain outliers; other labels are shifted to be unique across bins.
+                    labels[bin.get(k)] = label == 0 ? 0 : labelOffset + label;
+                    maximalLabel = Math.max(maximalLabel, label);
+                }
+                labelOffset += maximalLabel;
+            }
+
+            // Label the uniform bins of the component as one cluster, or as outliers if they are too small.
+            if (uniformSamples.size() >= minimumClusterSize) {
+                labelOffset++;
+                for (int i : uniformSamples) {
+                    labels[i] = labelOffset;
+                    outlierScores[i] = 0.0;
+                }
+            } else {
+                for (int i : uniformSamples)
+                    outlierScores[i] = 1.0;
+            }
+        }
+        return toEntries(names, Arrays.stream(labels).boxed().toList(), Arrays.stream(outlierScores).boxed().toList());
+    }
+
+    /**
+     * Adds the specified bin to the list of bins, or splits it by the values of its first bands if it exceeds the
+     * approximation threshold and further bands are available.
+     *
+     * @param bin        The indices of the samples in the bin.
+     * @param signatures The MinHash signatures of all samples.
+     * @param prefix     The number of bands to split the bin by.
+     * @param bins       The list of bins to add to.
+     */
+    private void splitBin(List<Integer> bin, int[][] signatures, int prefix, List<List<Integer>> bins) {
+        if (bin.size() <= approximationThreshold || prefix > minHashFunctions / minHashBandRows) {
+            bins.add(bin);
+            return;
+        }
+        LinkedHashMap<Long, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i : bin)
+            groups.computeIfAbsent(bandKey(signatures[i], 0, prefix), key -> new ArrayList<>()).add(i);
+        if (groups.size() == 1)
+            splitBin(bin, signatures, prefix + 1, bins);
+        else
+            groups.values().forEach(group -> splitBin(group, signatures, prefix + 1, bins));
+    }
+
+    /**
+     * Computes the value of the specified MinHash function for a variant identifier.
+     *
+     * @param variantId The variant identifier.
+     * @param function  The index of the MinHash function.
+     * @return The hash value.
+     */
+    private static int minHash(int variantId, int function) {
+        // Finalizer of the 64-bit MurmurHash3 applied to the seeded identifier.
+        long h = variantId ^ minHashSeeds[function];
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) ((h ^ (h >>> 33)) >>> 33);
+    }
+
+    /**
+     * Combines the MinHash values of the specified range of bands into a single key.
+     *
+     * @param signature The MinHash signature of a sample.
+     * @param fromBand  The first band (inclusive).
+     * @param toBand    The last band (exclusive).
+     * @return The key of the bands; distinct bands yield the same key only with negligible probability.
+     */
+    private static long bandKey(int[] signature, int fromBand, int toBand) {
+        long key = fromBand;
+        for (int h = fromBand * minHashBandRows; h < toBand * minHashBandRows; h++)
+            key = key * 0x9E3779B97F4A7C15L + signature[h];
+        return key;
+    }
+
+    /**
+     * Finds the representative of the specified element in a union-find forest and compresses its path.
+     *
+     * @param parents The parent of each element.
+     * @param i       The element.
+     * @return The representative of the element's set.
+     */
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
     }
 
     /**
@@ -127,11 +423,22 @@ public final class Clustering {
      *
      * @return A list of clustering result entries, each containing the name, label, index, and outlier score.
      */
-    public static List<Entry> getClusteringResult() {
+    public List<Entry> getClusteringResult() {
+        if (isApproximate())
+            return approximateResult;
         // Get cluster labels and outlier scores from the model.
-        List<Integer> clusterLabels = model.getClusterLabels();
-        List<Double> outlierScores = model.getOutlierScores();
+        return toEntries(names, model.getClusterLabels(), model.getOutlierScores());
+    }
 
+    /**
+     * Constructs clustering result entries from cluster labels and outlier scores.
+     *
+     * @param names         The names of the samples.
+     * @param clusterLabels The cluster label of each sample; 0 denotes outliers.
+     * @param outlierScores The outlier score of each sample.
+     * @return A list of clustering result entries, each containing the name, label, index, and outlier score.
+     */
+    private static List<Entry> toEntries(List<String> names, List<Integer> clusterLabels, List<Double> outlierScores) {
         // Construct label re-mapping to ensure consistent cluster IDs.
         // NOTE: This is a workaround as cluster labels do not start from 1.
         Map<Integer, Integer> labelMap = new HashMap<>();
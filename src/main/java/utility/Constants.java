@@ -190,6 +190,11 @@ public final class Constants {
      */
     public final static String $SequenceType_clusterOutlierScore = "cluster_outlier_score";
 
+    /**
+     * Key used to mark sequence types whose cluster label, index and outlier score result from approximate clustering.
+     */
+    public final static String $SequenceType_clusterApproximate = "cluster_approximate";
+
     /**
      * Key used to represent the net shift in sequence length of a sequence type.
      * <p>
@@ -1,6 +1,5 @@
 package utility;
 
-import com.google.common.base.Splitter;
 import datastructure.Contig;
 import datastructure.Feature;
 import datastructure.Storage;
@@ -42,17 +41,20 @@ public final class IO {
      * <p>
      * The format uses one digit before the decimal point and two digits after,
      * followed by an exponent (e.g., "1.23E4"). The locale is set to US for consistent
-     * decimal and grouping symbols.
+     * decimal and grouping symbols. As {@link DecimalFormat} is not thread-safe, each thread uses its own instance.
      */
-    private static final DecimalFormat frequencyFormat = new DecimalFormat(".00E0", DecimalFormatSymbols.getInstance(Locale.US));
+    private static final ThreadLocal<DecimalFormat> frequencyFormat =
+            ThreadLocal.withInitial(() -> new DecimalFormat(".00E0", DecimalFormatSymbols.getInstance(Locale.US)));
 
     /**
      * A DecimalFormat instance for formatting numbers with up to three decimal places.
      * <p>
      * The format uses up to two digits before the decimal point and three digits after
-     * (e.g., "12.345"). The locale is set to US for consistent decimal and grouping symbols.
+     * (e.g., "12.345"). The locale is set to US for consistent decimal and grouping symbols. Each thread uses its
+     * own instance.
      */
-    private static final DecimalFormat decimalFormat = new DecimalFormat("##.###", DecimalFormatSymbols.getInstance(Locale.US));
+    private static final ThreadLocal<DecimalFormat> decimalFormat =
+            ThreadLocal.withInitial(() -> new DecimalFormat("##.###", DecimalFormatSymbols.getInstance(Locale.US)));
 
     /**
      * Formats a frequency value into scientific notation.
@@ -64,7 +66,7 @@ public final class IO {
      * @return A {@link String} representing the formatted frequency in scientific notation.
      */
     public static String formatFrequency(double value) {
-        String formattedValue = frequencyFormat.format(value);
+        String formattedValue = frequencyFormat.get().format(value);
         if (formattedValue.equals(".10E1"))
             return "1.00";
         else if (formattedValue.equals(".00E0"))
@@ -83,7 +85,7 @@ public final class IO {
      * @return A {@link String} representing the formatted number.
      */
     public static String formatNumber(double value) {
-        return decimalFormat.format(value);
+        return decimalFormat.get().format(value);
     }
 
     /**
@@ -184,13 +186,13 @@ public final class IO {
     }
 
     /**
-     * Generates the content of a plain VCF (Variant Call Format) file.
+     * Writes a plain VCF (Variant Call Format) file for a list of variants to a {@link Writer}.
      * <p>
-     * This method constructs a VCF file content as a {@link String} from a list of variants.
      * The VCF content includes the file format, source, and a header line, followed by the variant data.
-     * Each variant is represented by its chromosome, position, reference base, and alternate base.
+     * Each variant is represented by its chromosome, position, reference base, and alternate base. Records are
+     * written one at a time, i.e., the content is never materialized as a whole.
      * <p>
-     * The generated VCF content follows the VCFv4.3 specification and includes the following fields:
+     * The written VCF content follows the VCFv4.3 specification and includes the following fields:
      * <ul>
      *   <li>CHROM: Chromosome name</li>
      *   <li>POS: Position of the variant</li>
@@ -202,21 +204,22 @@ public final class IO {
      *   <li>INFO: Additional information (empty)</li>
      * </ul>
      *
+     * @param writer   The {@link Writer} to write the VCF content to; it is not closed.
      * @param variants A list of {@link Tuple} objects, where each tuple contains:
      *                 <ul>
      *                   <li>A {@link Triple} with the chromosome name, position, and alternate base.</li>
      *                   <li>A {@link VariantInformation} object containing the reference base.</li>
      *                 </ul>
-     * @return A {@link String} representing the VCF content.
+     * @throws IOException If an I/O error occurs while writing.
      */
-    public static String generateVcfContent(ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> variants) {
-        StringBuilder content = new StringBuilder();
-        content.append("##fileformat=VCFv4.3").append(Constants.lineSeparator)
+    public static void writeVcf(Writer writer, List<Tuple<Triple<String, Integer, String>, VariantInformation>> variants)
+            throws IOException {
+        writer.append("##fileformat=VCFv4.3").append(Constants.lineSeparator)
                 .append("##source=MUSIAL").append(Constants.lineSeparator)
                 .append("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO").append(Constants.lineSeparator);
         for (Tuple<Triple<String, Integer, String>, VariantInformation> variant : variants) {
-            content.append(variant.a.getLeft()).append("\t") // CHROM
-                    .append(variant.a.getMiddle()).append("\t") // POS
+            writer.append(variant.a.getLeft()).append("\t") // CHROM
+                    .append(String.valueOf(variant.a.getMiddle())).append("\t") // POS
                     .append(".\t") // ID
                     .append(variant.b.getReferenceBaseString(true)).append("\t") // REF
                     .append(SequenceOperations.stripGaps(variant.a.getRight())).append("\t") // ALT
@@ -224,58 +227,65 @@ public final class IO {
                     .append(".\t") // FILTER
                     .append("\t").append(Constants.lineSeparator); // INFO
         }
-        return content.toString();
     }
 
     /**
-     * Generates the content of a reference FASTA file from the given {@link Storage} object.
+     * Writes a reference FASTA file of the given {@link Storage} object to a {@link Writer}.
      * <p>
-     * This method constructs a FASTA file content as a {@link String} by iterating over the contigs
-     * in the provided {@link Storage} object. Each contig's name is used as the header (prefixed with '>'),
-     * and its sequence is split into lines of 80 characters for proper FASTA formatting.
+     * This method iterates over the contigs in the provided {@link Storage} object. Each contig's name is used as the
+     * header (prefixed with '>'), and its sequence is written in lines of 80 characters for proper FASTA formatting.
+     * Sequences are decompressed while they are written (see {@link Contig#getSequenceReader()}), i.e., no contig
+     * sequence is materialized as a whole.
      *
+     * @param writer  The {@link Writer} to write the FASTA content to; it is not closed.
      * @param storage The {@link Storage} object containing the contigs and their sequences.
-     * @return A {@link String} representing the content of the reference FASTA file.
-     * @throws IOException              If an I/O error occurs during the generation of the FASTA content.
+     * @throws IOException              If an I/O error occurs during the decompression or writing of the sequences.
      * @throws IllegalArgumentException If no reference sequence information is stored in the {@link Storage} object.
      */
-    public static String generateReferenceFastaContent(Storage storage) throws IOException {
+    public static void writeReferenceFasta(Writer writer, Storage storage) throws IOException {
         if (storage.hasMissingContigSequences())
             throw new IllegalArgumentException("No reference sequence information is stored in the specified storage.");
-        StringBuilder content = new StringBuilder();
+        char[] line = new char[80];
         for (Contig contig : storage.getContigs()) {
-            content.append(">").append(contig.name).append(Constants.lineSeparator);
-            Splitter.fixedLength(80).split(contig.getSequence()).forEach(line -> content.append(line).append(Constants.lineSeparator));
+            writer.append(">").append(contig.name).append(Constants.lineSeparator);
+            try (Reader sequenceReader = contig.getSequenceReader()) {
+                int length;
+                while ((length = sequenceReader.read(line, 0, line.length)) != -1) {
+                    // Fill the line, as readers may return fewer characters than requested.
+                    int read;
+                    while (length < line.length && (read = sequenceReader.read(line, length, line.length - length)) != -1)
+                        length += read;
+                    writer.write(line, 0, length);
+                    writer.append(Constants.lineSeparator);
+                }
+            }
         }
-        return content.toString();
     }
 
     /**
-     * Generates the content of a GFF (General Feature Format) file from the given {@link Storage} object.
+     * Writes a GFF (General Feature Format) file of the given {@link Storage} object to a {@link Writer}.
      * <p>
-     * This method constructs a GFF file content as a {@link String} by iterating over the features
-     * in the provided {@link Storage} object. The GFF content includes the version, processor information,
-     * and the feature data. Each feature is converted to its GFF string representation using the
-     * {@link Feature#toGffString()} method.
+     * This method iterates over the features in the provided {@link Storage} object. The GFF content includes the
+     * version, processor information, and the feature data. Each feature is converted to its GFF string representation
+     * using the {@link Feature#toGffString()} method and written immediately.
      * <p>
-     * The generated GFF content follows the GFF3 specification and includes the following:
+     * The written GFF content follows the GFF3 specification and includes the following:
      * <ul>
      *   <li>##gff-version: Specifies the GFF version.</li>
      *   <li>##processor: Includes the software name and version used to generate the file.</li>
      *   <li>Feature data: Each feature is represented in GFF format.</li>
      * </ul>
      *
+     * @param writer  The {@link Writer} to write the GFF content to; it is not closed.
      * @param storage The {@link Storage} object containing the features to include in the GFF file.
-     * @return A {@link String} representing the GFF file content.
+     * @throws IOException If an I/O error occurs while writing.
      */
-    public static String generateGffContent(Storage storage) {
-        StringBuilder content = new StringBuilder();
-        content.append("##gff-version 3.1.26").append(Constants.lineSeparator);
-        content.append("##processor %s %s".formatted(Musial.softwareName, Musial.softwareVersion)).append(Constants.lineSeparator);
+    public static void writeGff(Writer writer, Storage storage) throws IOException {
+        writer.append("##gff-version 3.1.26").append(Constants.lineSeparator);
+        writer.append("##processor %s %s".formatted(Musial.softwareName, Musial.softwareVersion)).append(Constants.lineSeparator);
         for (Feature feature : storage.getFeatures()) {
-            content.append(feature.toGffString());
+            writer.append(feature.toGffString());
         }
-        return content.toString();
     }
 
     /**
@@ -354,6 +364,21 @@ public final class IO {
         }
     }
 
+    /**
+     * Opens a {@link Reader} on a Base64-encoded GZIP-compressed string.
+     * <p>
+     * Unlike {@link #gzipDecompress(String)}, the content is decompressed while it is read, i.e., only the compressed
+     * content and a buffer are held in memory. The caller is responsible for closing the returned reader.
+     *
+     * @param content The Base64-encoded GZIP-compressed string to decompress.
+     * @return A {@link Reader} on the decompressed content.
+     * @throws IOException If the GZIP header can not be read.
+     */
+    public static Reader gzipDecompressReader(String content) throws IOException {
+        return new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(Base64.decodeBase64(content))),
+                StandardCharsets.UTF_8);
+    }
+
     /**
      * Generates the MD5 hash of the given string.
      * <p>
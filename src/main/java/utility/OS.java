@@ -1,5 +1,7 @@
 package utility;
 
+import exceptions.MusialException;
+
 import java.io.File;
 
 /**
@@ -21,9 +23,11 @@ public final class OS {
      * @param errorLog The file path to redirect error logs. If empty, errors are not redirected.
      * @param output   The file path to redirect standard output. If empty, output is not redirected.
      * @param runInDir The directory in which the command should be executed. If empty, the default directory is used.
-     * @throws RuntimeException If an error occurs while executing the command.
+     * @throws MusialException If an error occurs while executing the command or the command exits with a non-zero
+     *                         exit code.
      */
-    public static void runCommand(String[] command, String errorLog, String output, String runInDir) throws RuntimeException {
+    public static void runCommand(String[] command, String errorLog, String output, String runInDir) throws MusialException {
+        int exitCode;
         try {
             ProcessBuilder pb = new ProcessBuilder(command);
             if (errorLog.length() > 0) {
@@ -36,9 +40,16 @@ public final class OS {
                 pb.directory(new File(runInDir));
             }
             Process process = pb.start();
-            process.waitFor();
+            exitCode = process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MusialException("Error executing command %s; interrupted.".formatted(String.join(" ", command)));
         } catch (Exception e) {
-            throw new RuntimeException("Error executing command %s; %s.".formatted(String.join(" ", command), e.getMessage()));
+            throw new MusialException("Error executing command %s; %s.".formatted(String.join(" ", command), e.getMessage()));
+        }
+        if (exitCode != 0) {
+            throw new MusialException("Error executing command %s; exited with code %d%s."
+                    .formatted(String.join(" ", command), exitCode, errorLog.isEmpty() ? "" : " (see %s)".formatted(errorLog)));
         }
     }
 
@@ -5,16 +5,9 @@ import datastructure.Feature;
 import exceptions.MusialException;
 import htsjdk.samtools.util.Tuple;
 import org.apache.commons.lang3.tuple.Triple;
-import org.biojava.nbio.core.sequence.DNASequence;
-import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
-import org.biojava.nbio.core.sequence.compound.AmbiguityRNACompoundSet;
-import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
-import org.biojava.nbio.core.sequence.template.CompoundSet;
-import org.biojava.nbio.core.sequence.template.Sequence;
-import org.biojava.nbio.core.sequence.transcription.Frame;
-import org.biojava.nbio.core.sequence.transcription.TranscriptionEngine;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -28,14 +21,201 @@ import java.util.*;
 public final class SequenceOperations {
 
     /**
-     * A cache for storing translated DNA sequences.
+     * Amino acids encoded by the 64 codons of the bacterial, archaeal and plant plastid code (NCBI translation table 11).
      * <p>
-     * This static {@link HashMap} is used to store previously translated DNA sequences
-     * to improve performance by avoiding redundant translations. The key is the hash code
-     * of the translation request (including sequence and direction), and the value is the
-     * translated amino acid sequence.
+     * Codons are indexed by {@code 16 * b1 + 4 * b2 + b3}, where each base is encoded as {@code T = 0}, {@code C = 1},
+     * {@code A = 2} and {@code G = 3}; i.e., the order matches the NCBI notation of translation tables. This table
+     * corresponds to the {@code Bacterial_and_Plant_Plastid} codon table used for the SnpEff annotation.
      */
-    private final static HashMap<Integer, String> translationCache = new HashMap<>();
+    private static final byte[] codonTable =
+            "FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Marks the alternative start codons of NCBI translation table 11 (TTG, CTG, ATT, ATC, ATA, ATG and GTG), indexed
+     * as {@link #codonTable}. A start codon in the first frame of a translated sequence is translated into methionine.
+     */
+    private static final boolean[] startCodons = new boolean[64];
+
+    /**
+     * Maps ASCII nucleotide symbols (IUPAC, case-insensitive) to a 4-bit mask of the bases they represent; the bits
+     * {@code 1, 2, 4, 8} represent the bases T, C, A and G (matching the base encoding of {@link #codonTable}). Gap
+     * symbols are mapped to {@code 16} and invalid symbols to {@code 0}.
+     */
+    private static final byte[] nucleotideMasks = new byte[128];
+
+    /**
+     * Maps 4-bit nucleotide masks (see {@link #nucleotideMasks}) to the mask of their complement.
+     */
+    private static final byte[] complementMasks = new byte[17];
+
+    /**
+     * Score of alignment cells that can not be reached within the alignment band; used instead of negative infinity.
+     * Half of {@link Integer#MIN_VALUE} leaves sufficient headroom to subtract gap penalties without overflow.
+     */
+    private static final int unreachableScore = Integer.MIN_VALUE / 2;
+
+    /**
+     * Scores up to this limit are considered unreachable. Scores derived from {@link #unreachableScore} by adding a
+     * substitution score stay below this limit, which allows match scores to be computed without branches.
+     */
+    private static final int reachableScoreLimit = unreachableScore + (1 << 20);
+
+    /**
+     * 2-bit traceback directions of {@link #globalSequenceAlignment}.
+     */
+    private static final int tracebackNone = 0, tracebackInsertion = 1, tracebackDeletion = 2, tracebackMatch = 3;
+
+    /**
+     * Per-thread scratch buffers of {@link #globalSequenceAlignment}, reused across alignments.
+     */
+    private static final ThreadLocal<AlignmentBuffers> alignmentBuffers = ThreadLocal.withInitial(AlignmentBuffers::new);
+
+    /**
+     * Number of traceback cells above which {@link #globalSequenceAlignment} uses a checkpointed traceback, i.e.,
+     * recomputes the traceback block-wise from checkpoint rows instead of storing the traceback of all rows. The
+     * default of 2^26 cells corresponds to a traceback of 16 MB.
+     */
+    private static final long checkpointedTracebackThreshold = 1L << 26;
+
+    /**
+     * Maps nucleotide symbols to their index in {@link #nucleotideScoringMatrix}.
+     */
+    private static final HashMap<Character, Integer> nucleotideIndexMap = new HashMap<>() {{
+        put('A', 0);
+        put('C', 1);
+        put('G', 2);
+        put('T', 3);
+        put('N', 4);
+    }};
+
+    /**
+     * Simple nucleotide scoring matrix (match +1, mismatch -1) indexed by {@link #nucleotideIndexMap}.
+     */
+    private static final int[][] nucleotideScoringMatrix = {
+            {1, -1, -1, -1, -1},
+            {-1, 1, -1, -1, -1},
+            {-1, -1, 1, -1, -1},
+            {-1, -1, -1, 1, -1},
+            {-1, -1, -1, -1, -1},
+    };
+
+    /**
+     * Maps amino acid symbols to their index in {@link #blosum80}.
+     */
+    private static final HashMap<Character, Integer> blosum80IndexMap = new HashMap<>() {{
+        put('A', 0);
+        put('R', 1);
+        put('N', 2);
+        put('D', 3);
+        put('C', 4);
+        put('Q', 5);
+        put('E', 6);
+        put('G', 7);
+        put('H', 8);
+        put('I', 9);
+        put('L', 10);
+        put('K', 11);
+        put('M', 12);
+        put('F', 13);
+        put('P', 14);
+        put('S', 15);
+        put('T', 16);
+        put('W', 17);
+        put('Y', 18);
+        put('V', 19);
+        put('B', 20);
+        put('J', 21);
+        put('Z', 22);
+        put('X', 23);
+        put('*', 24);
+    }};
+
+    // GG
+    // HH
+    // SG -3
+    /**
+     * BLOSUM80 amino acid scoring matrix indexed by {@link #blosum80IndexMap}.
+     */
+    private static final int[][] blosum80 = {
+            {5, -2, -2, -2, -1, -1, -1, 0, -2, -2, -2, -1, -1, -3, -1, 1, 0, -3, -2, 0, -2, -2, -1, -1, -6},
+            {-2, 6, -1, -2, -4, 1, -1, -3, 0, -3, -3, 2, -2, -4, -2, -1, -1, -4, -3, -3, -1, -3, 0, -1, -6},
+            {-2, -1, 6, 1, -3, 0, -1, -1, 0, -4, -4, 0, -3, -4, -3, 0, 0, -4, -3, -4, 5, -4, 0, -1, -6},
+            {-2, -2, 1, 6, -4, -1, 1, -2, -2, -4, -5, -1, -4, -4, -2, -1, -1, -6, -4, -4, 5, -5, 1, -1, -6},
+            {-1, -4, -3, -4, 9, -4, -5, -4, -4, -2, -2, -4, -2, -3, -4, -2, -1, -3, -3, -1, -4, -2, -4, -1, -6},
+            {-1, 1, 0, -1, -4, 6, 2, -2, 1, -3, -3, 1, 0, -4, -2, 0, -1, -3, -2, -3, 0, -3, 4, -1, -6},
+            {-1, -1, -1, 1, -5, 2, 6, -3, 0, -4, -4, 1, -2, -4, -2, 0, -1, -4, -3, -3, 1, -4, 5, -1, -6},
+            {0, -3, -1, -2, -4, -2, -3, 6, -3, -5, -4, -2, -4, -4, -3, -1, -2, -4, -4, -4, -1, -5, -3, -1, -6},
+            {-2, 0, 0, -2, -4, 1, 0, -3, 8, -4, -3, -1, -2, -2, -3, -1, -2, -3, 2, -4, -1, -4, 0, -1, -6},
+            {-2, -3, -4, -4, -2, -3, -4, -5, -4, 5, 1, -3, 1, -1, -4, -3, -1, -3, -2, 3, -4, 3, -4, -1, -6},
+            {-2, -3, -4, -5, -2, -3, -4, -4, -3, 1, 4, -3, 2, 0, -3, -3, -2, -2, -2, 1, -4, 3, -3, -1, -6},
+            {-1, 2, 0, -1, -4, 1, 1, -2, -1, -3, -3, 5, -2, -4, -1, -1, -1, -4, -3, -3, -1, -3, 1, -1, -6},
+            {-1, -2, -3, -4, -2, 0, -2, -4, -2, 1, 2, -2, 6, 0, -3, -2, -1, -2, -2, 1, -3, 2, -1, -1, -6},
+            {-3, -4, -4, -4, -3, -4, -4, -4, -2, -1, 0, -4, 0, 6, -4, -3, -2, 0, 3, -1, -4, 0, -4, -1, -6},
+            {-1, -2, -3, -2, -4, -2, -2, -3, -3, -4, -3, -1, -3, -4, 8, -1, -2, -5, -4, -3, -2, -4, -2, -1, -6},
+            {1, -1, 0, -1, -2, 0, 0, -1, -1, -3, -3, -1, -2, -3, -1, 5, 1, -4, -2, -2, 0, -3, 0, -1, -6},
+            {0, -1, 0, -1, -1, -1, -1, -2, -2, -1, -2, -1, -1, -2, -2, 1, 5, -4, -2, 0, -1, -1, -1, -1, -6},
+            {-3, -4, -4, -6, -3, -3, -4, -4, -3, -3, -2, -4, -2, 0, -5, -4, -4, 11, 2, -3, -5, -3, -3, -1, -6},
+            {-2, -3, -3, -4, -3, -2, -3, -4, 2, -2, -2, -3, -2, 3, -4, -2, -2, 2, 7, -2, -3, -2, -3, -1, -6},
+            {0, -3, -4, -4, -1, -3, -3, -4, -4, 3, 1, -3, 1, -1, -3, -2, 0, -3, -2, 4, -4, 2, -3, -1, -6},
+            {-2, -1, 5, 5, -4, 0, 1, -1, -1, -4, -4, -1, -3, -4, -2, 0, -1, -5, -3, -4, 5, -4, 0, -1, -6},
+            {-2, -3, -4, -5, -2, -3, -4, -5, -4, 3, 3, -3, 2, 0, -4, -3, -1, -3, -2, 2, -4, 3, -3, -1, -6},
+            {-1, 0, 0, 1, -4, 4, 5, -3, 0, -4, -3, 1, -1, -4, -2, 0, -1, -3, -3, -3, 0, -3, 5, -1, -6},
+            {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -6},
+            {-6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, 1}
+    };
+
+    /**
+     * Total length of the aligned sequences held by {@link #alignmentCache}, above which the least recently used
+     * alignments are evicted; 2^24 characters correspond to roughly 16 MB.
+     */
+    private static final long alignmentCacheCapacity = 1L << 24;
+
+    /**
+     * Number of alignment matrix cells below which alignments are not cached, as computing them is cheaper than
+     * computing the digest of the sequences.
+     */
+    private static final long alignmentCacheMinimumCells = 1L << 10;
+
+    /**
+     * Process-wide cache of global sequence alignments in access order, keyed by {@link AlignmentKey}. Access has to be
+     * synchronized on the cache.
+     */
+    private static final LinkedHashMap<AlignmentKey, Tuple<String, String>> alignmentCache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Total length of the aligned sequences held by {@link #alignmentCache}.
+     */
+    private static long alignmentCacheSize = 0;
+
+    static {
+        for (int codon : new int[]{3, 19, 32, 33, 34, 35, 51})
+            startCodons[codon] = true;
+        // Unambiguous bases; U is treated as T.
+        nucleotideMasks['T'] = 1;
+        nucleotideMasks['U'] = 1;
+        nucleotideMasks['C'] = 2;
+        nucleotideMasks['A'] = 4;
+        nucleotideMasks['G'] = 8;
+        // IUPAC ambiguity codes.
+        nucleotideMasks['R'] = 4 | 8;
+        nucleotideMasks['Y'] = 1 | 2;
+        nucleotideMasks['S'] = 2 | 8;
+        nucleotideMasks['W'] = 1 | 4;
+        nucleotideMasks['K'] = 1 | 8;
+        nucleotideMasks['M'] = 2 | 4;
+        nucleotideMasks['B'] = 1 | 2 | 8;
+        nucleotideMasks['D'] = 1 | 4 | 8;
+        nucleotideMasks['H'] = 1 | 2 | 4;
+        nucleotideMasks['V'] = 2 | 4 | 8;
+        nucleotideMasks['N'] = 1 | 2 | 4 | 8;
+        nucleotideMasks[Constants.gapChar] = 16;
+        for (char symbol = 'A'; symbol <= 'Z'; symbol++)
+            nucleotideMasks[Character.toLowerCase(symbol)] = nucleotideMasks[symbol];
+        // Complement masks swap T <-> A (bits 1 and 4) and C <-> G (bits 2 and 8).
+        for (int mask = 0; mask < 16; mask++)
+            complementMasks[mask] = (byte) (((mask & 1) << 2) | ((mask & 4) >> 2) | ((mask & 2) << 2) | ((mask & 8) >> 2));
+        complementMasks[16] = 16;
+    }
 
     /**
      * Performs global nucleotide sequence alignment using a simple scoring matrix.
@@ -61,25 +241,32 @@ public final class SequenceOperations {
      */
     public static Tuple<String, String> globalNucleotideSequenceAlignment(String sequenceA, String sequenceB, int gapOpenPenalty, int gapExtendPenalty,
                                                                           MarginalGaps left, MarginalGaps right, Integer bandWidth) {
-        HashMap<Character, Integer> simpleNucleotideScoringMatrixIndexMap = new HashMap<>() {{
-            put('A', 0);
-            put('C', 1);
-            put('G', 2);
-            put('T', 3);
-            put('N', 4);
-        }};
-        int[][] simpleNucleotideScoringMatrix = {
-                {1, -1, -1, -1, -1},
-                {-1, 1, -1, -1, -1},
-                {-1, -1, 1, -1, -1},
-                {-1, -1, -1, 1, -1},
-                {-1, -1, -1, -1, -1},
-        };
-        return globalSequenceAlignment(sequenceA, sequenceB, simpleNucleotideScoringMatrixIndexMap,
-                simpleNucleotideScoringMatrix,
+        return cachedGlobalSequenceAlignment(sequenceA, sequenceB, "nucleotide", nucleotideIndexMap, nucleotideScoringMatrix,
                 gapOpenPenalty, gapExtendPenalty, left, right, bandWidth);
     }
 
+    /**
+     * Performs global nucleotide sequence alignment as {@link #globalNucleotideSequenceAlignment}, but without the
+     * alignment cache and with the specified number of traceback cells above which a checkpointed traceback is used
+     * (see {@link #checkpointedTracebackThreshold}).
+     *
+     * @param sequenceA            The first nucleotide sequence to align.
+     * @param sequenceB            The second nucleotide sequence to align.
+     * @param gapOpenPenalty       The penalty for opening a gap in the alignment.
+     * @param gapExtendPenalty     The penalty for extending an existing gap in the alignment.
+     * @param left                 Specifies how to handle left-marginal gaps (FREE, PENALIZE, FORBID).
+     * @param right                Specifies how to handle right-marginal gaps (FREE, PENALIZE, FORBID).
+     * @param bandWidth            The band-width for banded alignment, or null for non-banded alignment.
+     * @param checkpointThreshold  The number of traceback cells above which a checkpointed traceback is used.
+     * @return A {@link Tuple} containing the aligned sequences.
+     */
+    static Tuple<String, String> globalNucleotideSequenceAlignment(String sequenceA, String sequenceB, int gapOpenPenalty, int gapExtendPenalty,
+                                                                   MarginalGaps left, MarginalGaps right, Integer bandWidth,
+                                                                   long checkpointThreshold) {
+        return globalSequenceAlignment(sequenceA, sequenceB, nucleotideIndexMap, nucleotideScoringMatrix, gapOpenPenalty,
+                gapExtendPenalty, left, right, bandWidth, checkpointThreshold);
+    }
+
     /**
      * Performs global protein sequence alignment using the BLOSUM80 scoring matrix.
      * <p>
@@ -104,64 +291,77 @@ public final class SequenceOperations {
      */
     public static Tuple<String, String> globalProteinSequenceAlignment(String sequenceA, String sequenceB, int gapOpenPenalty, int gapExtendPenalty,
                                                                        MarginalGaps left, MarginalGaps right, Integer bandWidth) {
-        HashMap<Character, Integer> blosum80IndexMap = new HashMap<>() {{
-            put('A', 0);
-            put('R', 1);
-            put('N', 2);
-            put('D', 3);
-            put('C', 4);
-            put('Q', 5);
-            put('E', 6);
-            put('G', 7);
-            put('H', 8);
-            put('I', 9);
-            put('L', 10);
-            put('K', 11);
-            put('M', 12);
-            put('F', 13);
-            put('P', 14);
-            put('S', 15);
-            put('T', 16);
-            put('W', 17);
-            put('Y', 18);
-            put('V', 19);
-            put('B', 20);
-            put('J', 21);
-            put('Z', 22);
-            put('X', 23);
-            put('*', 24);
-        }};
-        // GG
-        // HH
-        // SG -3
-        int[][] blosum80 = {
-                {5, -2, -2, -2, -1, -1, -1, 0, -2, -2, -2, -1, -1, -3, -1, 1, 0, -3, -2, 0, -2, -2, -1, -1, -6},
-                {-2, 6, -1, -2, -4, 1, -1, -3, 0, -3, -3, 2, -2, -4, -2, -1, -1, -4, -3, -3, -1, -3, 0, -1, -6},
-                {-2, -1, 6, 1, -3, 0, -1, -1, 0, -4, -4, 0, -3, -4, -3, 0, 0, -4, -3, -4, 5, -4, 0, -1, -6},
-                {-2, -2, 1, 6, -4, -1, 1, -2, -2, -4, -5, -1, -4, -4, -2, -1, -1, -6, -4, -4, 5, -5, 1, -1, -6},
-                {-1, -4, -3, -4, 9, -4, -5, -4, -4, -2, -2, -4, -2, -3, -4, -2, -1, -3, -3, -1, -4, -2, -4, -1, -6},
-                {-1, 1, 0, -1, -4, 6, 2, -2, 1, -3, -3, 1, 0, -4, -2, 0, -1, -3, -2, -3, 0, -3, 4, -1, -6},
-                {-1, -1, -1, 1, -5, 2, 6, -3, 0, -4, -4, 1, -2, -4, -2, 0, -1, -4, -3, -3, 1, -4, 5, -1, -6},
-                {0, -3, -1, -2, -4, -2, -3, 6, -3, -5, -4, -2, -4, -4, -3, -1, -2, -4, -4, -4, -1, -5, -3, -1, -6},
-                {-2, 0, 0, -2, -4, 1, 0, -3, 8, -4, -3, -1, -2, -2, -3, -1, -2, -3, 2, -4, -1, -4, 0, -1, -6},
-                {-2, -3, -4, -4, -2, -3, -4, -5, -4, 5, 1, -3, 1, -1, -4, -3, -1, -3, -2, 3, -4, 3, -4, -1, -6},
-                {-2, -3, -4, -5, -2, -3, -4, -4, -3, 1, 4, -3, 2, 0, -3, -3, -2, -2, -2, 1, -4, 3, -3, -1, -6},
-                {-1, 2, 0, -1, -4, 1, 1, -2, -1, -3, -3, 5, -2, -4, -1, -1, -1, -4, -3, -3, -1, -3, 1, -1, -6},
-                {-1, -2, -3, -4, -2, 0, -2, -4, -2, 1, 2, -2, 6, 0, -3, -2, -1, -2, -2, 1, -3, 2, -1, -1, -6},
-                {-3, -4, -4, -4, -3, -4, -4, -4, -2, -1, 0, -4, 0, 6, -4, -3, -2, 0, 3, -1, -4, 0, -4, -1, -6},
-                {-1, -2, -3, -2, -4, -2, -2, -3, -3, -4, -3, -1, -3, -4, 8, -1, -2, -5, -4, -3, -2, -4, -2, -1, -6},
-                {1, -1, 0, -1, -2, 0, 0, -1, -1, -3, -3, -1, -2, -3, -1, 5, 1, -4, -2, -2, 0, -3, 0, -1, -6},
-                {0, -1, 0, -1, -1, -1, -1, -2, -2, -1, -2, -1, -1, -2, -2, 1, 5, -4, -2, 0, -1, -1, -1, -1, -6},
-                {-3, -4, -4, -6, -3, -3, -4, -4, -3, -3, -2, -4, -2, 0, -5, -4, -4, 11, 2, -3, -5, -3, -3, -1, -6},
-                {-2, -3, -3, -4, -3, -2, -3, -4, 2, -2, -2, -3, -2, 3, -4, -2, -2, 2, 7, -2, -3, -2, -3, -1, -6},
-                {0, -3, -4, -4, -1, -3, -3, -4, -4, 3, 1, -3, 1, -1, -3, -2, 0, -3, -2, 4, -4, 2, -3, -1, -6},
-                {-2, -1, 5, 5, -4, 0, 1, -1, -1, -4, -4, -1, -3, -4, -2, 0, -1, -5, -3, -4, 5, -4, 0, -1, -6},
-                {-2, -3, -4, -5, -2, -3, -4, -5, -4, 3, 3, -3, 2, 0, -4, -3, -1, -3, -2, 2, -4, 3, -3, -1, -6},
-                {-1, 0, 0, 1, -4, 4, 5, -3, 0, -4, -3, 1, -1, -4, -2, 0, -1, -3, -3, -3, 0, -3, 5, -1, -6},
-                {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -6},
-                {-6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, -6, 1}
-        };
-        return globalSequenceAlignment(sequenceA, sequenceB, blosum80IndexMap, blosum80, gapOpenPenalty, gapExtendPenalty, left, right, bandWidth);
+        return cachedGlobalSequenceAlignment(sequenceA, sequenceB, "blosum80", blosum80IndexMap, blosum80,
+                gapOpenPenalty, gapExtendPenalty, left, right, bandWidth);
+    }
+
+    /**
+     * Computes optimal pairwise global sequence alignment, using the process-wide alignment cache.
+     * <p>
+     * The same sequence pairs are realigned repeatedly, e.g., identical complex alleles of different samples or the
+     * reference protein of a feature against equal proteoforms. Alignments are therefore cached by a SHA-256 digest of
+     * both sequences together with the scoring matrix, gap penalties, marginal gap modes and band-width. The cache is
+     * bounded by {@link #alignmentCacheCapacity} and evicts the least recently used alignments; small alignments are
+     * not cached (see {@link #alignmentCacheMinimumCells}).
+     *
+     * @param sequenceY        The first sequence to align.
+     * @param sequenceX        The second sequence to align.
+     * @param scoringName      The name of the scoring matrix; part of the cache key.
+     * @param characterIndex   A mapping of characters to their respective indices in the scoring matrix.
+     * @param scores           A 2D array representing the scoring matrix for character matches and mismatches.
+     * @param gapOpenPenalty   The penalty for opening a gap in the alignment.
+     * @param gapExtendPenalty The penalty for extending an existing gap in the alignment.
+     * @param left             Specifies how to handle left-marginal gaps (FREE, PENALIZE, FORBID).
+     * @param right            Specifies how to handle right-marginal gaps (FREE, PENALIZE, FORBID).
+     * @param bandWidth        The band-width for banded alignment, or null for non-banded alignment.
+     * @return A {@link Tuple} containing the aligned sequences.
+     * @throws IllegalArgumentException If the bandWidth is too narrow for the given sequences.
+     */
+    private static Tuple<String, String> cachedGlobalSequenceAlignment(String sequenceY, String sequenceX, String scoringName,
+                                                                       HashMap<Character, Integer> characterIndex,
+                                                                       int[][] scores, int gapOpenPenalty, int gapExtendPenalty,
+                                                                       MarginalGaps left, MarginalGaps right, Integer bandWidth) {
+        if ((long) (sequenceY.length() + 1) * (sequenceX.length() + 1) < alignmentCacheMinimumCells)
+            return globalSequenceAlignment(sequenceY, sequenceX, characterIndex, scores, gapOpenPenalty, gapExtendPenalty, left, right, bandWidth,
+                    checkpointedTracebackThreshold);
+        AlignmentKey key = new AlignmentKey(
+                org.apache.commons.codec.digest.DigestUtils.sha256Hex(sequenceY + Constants.TAB + sequenceX),
+                scoringName, gapOpenPenalty, gapExtendPenalty, left, right, bandWidth
+        );
+        Tuple<String, String> alignment;
+        synchronized (alignmentCache) {
+            alignment = alignmentCache.get(key);
+        }
+        if (Objects.nonNull(alignment))
+            return alignment;
+        alignment = globalSequenceAlignment(sequenceY, sequenceX, characterIndex, scores, gapOpenPenalty, gapExtendPenalty, left, right, bandWidth,
+                checkpointedTracebackThreshold);
+        long alignmentSize = alignment.a.length() + alignment.b.length();
+        if (alignmentSize <= alignmentCacheCapacity) {
+            synchronized (alignmentCache) {
+                if (Objects.isNull(alignmentCache.putIfAbsent(key, alignment))) {
+                    alignmentCacheSize += alignmentSize;
+                    // Evict least recently used alignments.
+                    Iterator<Tuple<String, String>> iterator = alignmentCache.values().iterator();
+                    while (alignmentCacheSize > alignmentCacheCapacity && iterator.hasNext()) {
+                        Tuple<String, String> evicted = iterator.next();
+                        alignmentCacheSize -= evicted.a.length() + evicted.b.length();
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+        return alignment;
+    }
+
+    /**
+     * Removes all alignments from the process-wide alignment cache.
+     */
+    static void clearAlignmentCache() {
+        synchronized (alignmentCache) {
+            alignmentCache.clear();
+            alignmentCacheSize = 0;
+        }
     }
 
     /**
@@ -176,16 +376,29 @@ public final class SequenceOperations {
      *   <li>The x-axis corresponds to the second sequence (sequenceX).</li>
      *   <li>Insertions are traced back by walking vertically, and deletions are traced back by walking horizontally.</li>
      * </ul>
+     * <p>
+     * Scores are computed as integers in two rolling rows (the deletion state is carried along the current row), and
+     * only the cells of the alignment band are stored in a traceback with 2 bits per cell. Hence, the memory of an
+     * alignment is linear in the length of the sequences times the band-width. All buffers are per-thread and reused.
+     * <p>
+     * If the traceback exceeds {@code checkpointThreshold} cells, a sqrt(n) checkpointed traceback is used: A forward
+     * pass stores the score rows preceding each block of about {@code sqrt(n)} rows, and the traceback of each block is
+     * recomputed from its checkpoint while tracing back. This reduces the memory from {@code O(n * band)} traceback
+     * cells to {@code O(sqrt(n) * m)} checkpoint scores plus {@code O(sqrt(n) * band)} traceback cells of a single
+     * block. It at most doubles the computation, but yields exactly the same alignment (including the resolution of
+     * ties) as a full traceback.
      *
-     * @param sequenceY        The first sequence to align.
-     * @param sequenceX        The second sequence to align.
-     * @param characterIndex   A mapping of characters to their respective indices in the scoring matrix.
-     * @param scores           A 2D array representing the scoring matrix for character matches and mismatches.
-     * @param gapOpenPenalty   The penalty for opening a gap in the alignment.
-     * @param gapExtendPenalty The penalty for extending an existing gap in the alignment.
-     * @param prefix_gap_mode  Specifies how to handle left-marginal gaps (FREE, PENALIZE, FORBID).
-     * @param suffix_gap_mode  Specifies how to handle right-marginal gaps (FREE, PENALIZE, FORBID).
-     * @param bandWidth        The band-width for banded alignment, or null for non-banded alignment.
+     * @param sequenceY            The first sequence to align.
+     * @param sequenceX            The second sequence to align.
+     * @param characterIndex       A mapping of characters to their respective indices in the scoring matrix.
+     * @param scores               A 2D array representing the scoring matrix for character matches and mismatches.
+     * @param gapOpenPenalty       The penalty for opening a gap in the alignment.
+     * @param gapExtendPenalty     The penalty for extending an existing gap in the alignment.
+     * @param prefix_gap_mode      Specifies how to handle left-marginal gaps (FREE, PENALIZE, FORBID).
+     * @param suffix_gap_mode      Specifies how to handle right-marginal gaps (FREE, PENALIZE, FORBID).
+     * @param bandWidth            The band-width for banded alignment, or null for non-banded alignment.
+     * @param checkpointThreshold  The number of traceback cells above which a checkpointed traceback is used (see
+     *                             {@link #checkpointedTracebackThreshold}).
      * @return A {@link Tuple} containing the aligned sequences.
      * @throws IllegalArgumentException If the bandWidth is too narrow for the given sequences.
      */
@@ -195,13 +408,18 @@ public final class SequenceOperations {
                                                                  int gapExtendPenalty,
                                                                  MarginalGaps prefix_gap_mode,
                                                                  MarginalGaps suffix_gap_mode,
-                                                                 Integer bandWidth) {
+                                                                 Integer bandWidth,
+                                                                 long checkpointThreshold) {
         /*
         Note on the alignment matrices:
         - The y-axis will yield seq1.
         - The x-axis will yield seq2.
         - Indels are wrt. seq1; thus insertions are traced back by walking vertically and deletions are traced back by
           walking horizontally in the matrix.
+        - Only the score rows of the previous and the current row are kept; the traceback is stored for the band only,
+          i.e., for row i the columns max(0, i - band) to max(0, i - band) + width - 1.
+        - If the traceback exceeds the checkpoint threshold, the rows are divided into blocks whose traceback is
+          recomputed from checkpoint rows during the traceback.
          */
         if (Objects.nonNull(bandWidth)) {
             int lengthDifference = Math.abs(sequenceX.length() - sequenceY.length());
@@ -209,161 +427,389 @@ public final class SequenceOperations {
                 throw new IllegalArgumentException("Band width %d is too narrow for the given sequences with length difference of %d."
                         .formatted(bandWidth, lengthDifference));
         }
-        double[][] scoreMatrix = initializeMatrix(sequenceY.length() + 1, sequenceX.length() + 1);
-        double[][] matchScoreMatrix = initializeMatrix(sequenceY.length() + 1, sequenceX.length() + 1);
-        double[][] insertionScoreMatrix = initializeMatrix(sequenceY.length() + 1, sequenceX.length() + 1);
-        double[][] deletionScoreMatrix = initializeMatrix(sequenceY.length() + 1, sequenceX.length() + 1);
-        char[][] tracebackMatrix = new char[sequenceY.length() + 1][sequenceX.length() + 1];
+        int n = sequenceY.length();
+        int m = sequenceX.length();
+        int band = Objects.isNull(bandWidth) ? Math.max(n, m) : bandWidth;
         char[] sequenceYBases = sequenceY.toCharArray();
         char[] sequenceXBases = sequenceX.toCharArray();
-        int capacity = Math.max(sequenceY.length(), sequenceX.length());
-        StringBuilder alignedSequenceYBuilder = new StringBuilder(capacity);
-        StringBuilder alignedSequenceXBuilder = new StringBuilder(capacity);
-        // (1) Fill alignment score matrix.
-        scoreMatrix[0][0] = 0;
-        matchScoreMatrix[0][0] = 0;
-        insertionScoreMatrix[0][0] = 0;
-        deletionScoreMatrix[0][0] = 0;
-        int gapCost;
-        // i -> PREFIX
-        for (int i = 1; i < (Objects.isNull(bandWidth) ? sequenceY.length() + 1 : bandWidth + 1); i++) {
-            gapCost = switch (prefix_gap_mode) {
-                case FREE -> 0;
-                case PENALIZE -> -gapOpenPenalty - (i - 1) * gapExtendPenalty;
-                case FORBID -> -gapOpenPenalty * 2 * sequenceY.length();
-            };
-            scoreMatrix[i][0] = gapCost;
-            matchScoreMatrix[i][0] = gapCost;
-            insertionScoreMatrix[i][0] = gapCost;
-            deletionScoreMatrix[i][0] = gapCost;
-            tracebackMatrix[i][0] = 'I';
+        // Precompute the query profile, i.e., the scores of each character of sequenceY against all positions of sequenceX.
+        int[] sequenceXIndices = new int[m];
+        for (int j = 0; j < m; j++)
+            sequenceXIndices[j] = characterIndex.get(sequenceXBases[j]);
+        int[][] queryProfile = new int[scores.length][];
+        int[][] substitutionScores = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int characterIndexY = characterIndex.get(sequenceYBases[i]);
+            if (Objects.isNull(queryProfile[characterIndexY])) {
+                int[] profileRow = new int[m];
+                for (int j = 0; j < m; j++)
+                    profileRow[j] = scores[characterIndexY][sequenceXIndices[j]];
+                queryProfile[characterIndexY] = profileRow;
+            }
+            substitutionScores[i] = queryProfile[characterIndexY];
         }
-        // j -> SUFFIX
-        for (int j = 1; j < (Objects.isNull(bandWidth) ? sequenceX.length() + 1 : bandWidth + 1); j++) {
-            gapCost = switch (suffix_gap_mode) {
-                case FREE -> 0;
-                case PENALIZE -> -gapOpenPenalty - (j - 1) * gapExtendPenalty;
-                case FORBID -> -gapOpenPenalty * 2 * sequenceX.length();
-            };
-            scoreMatrix[0][j] = gapCost;
-            matchScoreMatrix[0][j] = gapCost;
-            insertionScoreMatrix[0][j] = gapCost;
-            deletionScoreMatrix[0][j] = gapCost;
-            tracebackMatrix[0][j] = 'D';
+        AlignmentBuffers buffers = alignmentBuffers.get();
+        BandedAlignment alignment = new BandedAlignment(substitutionScores, m, gapOpenPenalty, gapExtendPenalty,
+                prefix_gap_mode, suffix_gap_mode, band, buffers.rows(m + 1));
+        // (1) Determine block size; if the traceback of the band exceeds the threshold, checkpoint rows are stored.
+        int width = alignment.width;
+        int blockSize = n + 1;
+        if ((long) (n + 1) * width > checkpointThreshold) {
+            blockSize = (int) Math.max(1, Math.min((long) Math.ceil(Math.sqrt(n + 1)), checkpointThreshold / width));
+            alignment.storeCheckpoints(blockSize);
         }
-        double max;
-        for (int i = 1; i < sequenceY.length() + 1; i++) {
-            int jLeftBound = Math.max(
-                    1,
-                    (Objects.isNull(bandWidth) ? 1 : i - bandWidth)
-            );
-            int jRightBound = Math.min(
-                    sequenceX.length(),
-                    (Objects.isNull(bandWidth) ? sequenceX.length() : i + bandWidth)
-            );
-            for (int j = jLeftBound; j < jRightBound + 1; j++) {
-                matchScoreMatrix[i][j] =
-                        scoreMatrix[i - 1][j - 1]
-                                + scores[characterIndex.get(sequenceYBases[i - 1])][characterIndex
-                                .get(sequenceXBases[j - 1])];
-                insertionScoreMatrix[i][j] =
-                        Math.max(
-                                scoreMatrix[i - 1][j] - gapOpenPenalty,
-                                insertionScoreMatrix[i - 1][j] - gapExtendPenalty
-                        );
-                deletionScoreMatrix[i][j] =
-                        Math.max(
-                                scoreMatrix[i][j - 1] - gapOpenPenalty,
-                                deletionScoreMatrix[i][j - 1] - gapExtendPenalty
-                        );
-                max = Integer.MIN_VALUE;
-                if (insertionScoreMatrix[i][j] > max) {
-                    max = insertionScoreMatrix[i][j];
-                    scoreMatrix[i][j] = max;
-                    tracebackMatrix[i][j] = 'I';
-                }
-                if (deletionScoreMatrix[i][j] > max) {
-                    max = deletionScoreMatrix[i][j];
-                    scoreMatrix[i][j] = max;
-                    tracebackMatrix[i][j] = 'D';
-                }
-                if (matchScoreMatrix[i][j] > max) {
-                    max = matchScoreMatrix[i][j];
-                    scoreMatrix[i][j] = max;
-                    tracebackMatrix[i][j] = 'M';
-                }
+        byte[] traceback = buffers.traceback((long) blockSize * width);
+        // (2) Deduce traceback path from band and construct aligned sequences back to front.
+        char[] alignedSequenceY = new char[n + m];
+        char[] alignedSequenceX = new char[n + m];
+        int position = n + m;
+        int i = n;
+        int j = m;
+        int blockStart = (n / blockSize) * blockSize;
+        alignment.fillBlock(blockStart, blockSize, traceback);
+        while (i > 0 || j > 0) {
+            if (i < blockStart) {
+                blockStart -= blockSize;
+                alignment.fillBlock(blockStart, blockSize, traceback);
+            }
+            int direction = (Math.abs(i - j) <= band && i >= 0 && j >= 0)
+                    ? getTracebackDirection(traceback, (i - blockStart) * width + j - alignment.rowStart(i))
+                    : tracebackNone;
+            position -= 1;
+            if (direction == tracebackDeletion) {
+                // CASE: Deletion wrt. to first sequence.
+                alignedSequenceY[position] = Constants.gapChar;
+                alignedSequenceX[position] = sequenceXBases[--j];
+            } else if (direction == tracebackInsertion) {
+                // CASE: Insertion wrt. to first sequence.
+                alignedSequenceY[position] = sequenceYBases[--i];
+                alignedSequenceX[position] = Constants.gapChar;
+            } else {
+                // CASE: Match or mismatch; also prevents traceback to walk out of set alignment band.
+                alignedSequenceY[position] = sequenceYBases[--i];
+                alignedSequenceX[position] = sequenceXBases[--j];
             }
         }
-        // (2) Deduce traceback path from matrix.
-        LinkedList<Character> tracebackPath = new LinkedList<>();
-        boolean runTraceback = true;
-        int i = sequenceY.length();
-        int j = sequenceX.length();
-        char tracebackDirection = tracebackMatrix[i][j];
-        while (runTraceback) {
-            if (tracebackDirection == 'M') {
-                tracebackPath.add('M');
-                i = i - 1;
-                j = j - 1;
-            } else if (tracebackDirection == 'D') {
-                tracebackPath.add('D');
-                j = j - 1;
-            } else if (tracebackDirection == 'I') {
-                tracebackPath.add('I');
-                i = i - 1;
+        // (3) Insert results into Tuple.
+        return new Tuple<>(
+                new String(alignedSequenceY, position, n + m - position),
+                new String(alignedSequenceX, position, n + m - position)
+        );
+    }
+
+    /**
+     * Computes the score of a marginal gap of the specified length for the first row or column of the alignment matrix.
+     *
+     * @param mode             The marginal gap mode (FREE, PENALIZE, FORBID).
+     * @param length           The length of the marginal gap.
+     * @param sequenceLength   The length of the sequence the marginal gap is placed along.
+     * @param gapOpenPenalty   The penalty for opening a gap in the alignment.
+     * @param gapExtendPenalty The penalty for extending an existing gap in the alignment.
+     * @return The (non-positive) score of the marginal gap.
+     */
+    private static int marginalGapCost(MarginalGaps mode, int length, int sequenceLength, int gapOpenPenalty, int gapExtendPenalty) {
+        return switch (mode) {
+            case FREE -> 0;
+            case PENALIZE -> -gapOpenPenalty - (length - 1) * gapExtendPenalty;
+            case FORBID -> -gapOpenPenalty * 2 * sequenceLength;
+        };
+    }
+
+    /**
+     * Stores a 2-bit traceback direction for the specified cell of a packed traceback.
+     *
+     * @param traceback The packed traceback, storing four cells per byte.
+     * @param cell      The index of the cell.
+     * @param direction The traceback direction to store.
+     */
+    private static void setTracebackDirection(byte[] traceback, int cell, int direction) {
+        int shift = (cell & 3) << 1;
+        traceback[cell >>> 2] = (byte) ((traceback[cell >>> 2] & ~(3 << shift)) | (direction << shift));
+    }
+
+    /**
+     * Reads the 2-bit traceback direction of the specified cell from a packed traceback.
+     *
+     * @param traceback The packed traceback, storing four cells per byte.
+     * @param cell      The index of the cell.
+     * @return The stored traceback direction.
+     */
+    private static int getTracebackDirection(byte[] traceback, int cell) {
+        return (traceback[cell >>> 2] >>> ((cell & 3) << 1)) & 3;
+    }
+
+    /**
+     * Gap-affine banded Needleman-Wunsch kernel of {@link #globalSequenceAlignment}.
+     * <p>
+     * Scores are computed as integers in two rolling rows (the deletion state is carried along the current row) and
+     * the traceback of each row is written for the cells of the band only. To bound the memory of the traceback,
+     * the score rows preceding each block of rows can be stored as checkpoints, from which the traceback of a single
+     * block is recomputed; the recomputed cells are identical to the ones of a full forward pass.
+     */
+    private static final class BandedAlignment {
+
+        /**
+         * The query profile row of each position of sequenceY, i.e., its scores against each position of sequenceX.
+         */
+        private final int[][] substitutionScores;
+        private final int gapOpenPenalty;
+        private final int gapExtendPenalty;
+        private final MarginalGaps prefixGapMode;
+        private final MarginalGaps suffixGapMode;
+        private final int n;
+        private final int m;
+        private final int band;
+        /**
+         * The number of traceback cells stored per row.
+         */
+        private final int width;
+        private int[] previousScores;
+        private int[] previousInsertionScores;
+        private int[] currentScores;
+        private int[] currentInsertionScores;
+        private final int[] matchScores;
+        private int[][] checkpointScores;
+        private int[][] checkpointInsertionScores;
+
+        private BandedAlignment(int[][] substitutionScores, int m, int gapOpenPenalty, int gapExtendPenalty,
+                                MarginalGaps prefixGapMode, MarginalGaps suffixGapMode, int band, int[][] rows) {
+            this.substitutionScores = substitutionScores;
+            this.gapOpenPenalty = gapOpenPenalty;
+            this.gapExtendPenalty = gapExtendPenalty;
+            this.prefixGapMode = prefixGapMode;
+            this.suffixGapMode = suffixGapMode;
+            this.n = substitutionScores.length;
+            this.m = m;
+            this.band = band;
+            this.width = (int) Math.min(2L * band + 1, m + 1);
+            this.previousScores = rows[0];
+            this.previousInsertionScores = rows[1];
+            this.currentScores = rows[2];
+            this.currentInsertionScores = rows[3];
+            this.matchScores = rows[4];
+        }
+
+        /**
+         * Returns the first column of the specified row that is stored in the traceback.
+         *
+         * @param i The row index.
+         * @return The first stored column of the row.
+         */
+        private int rowStart(int i) {
+            return Math.max(0, i - band);
+        }
+
+        /**
+         * Runs a forward pass over all rows and stores the score rows preceding each block of rows of the specified size.
+         *
+         * @param blockSize The number of rows per block.
+         */
+        private void storeCheckpoints(int blockSize) {
+            int blockCount = n / blockSize + 1;
+            checkpointScores = new int[blockCount][];
+            checkpointInsertionScores = new int[blockCount][];
+            for (int i = 0; i < n; i++) {
+                if (i == 0)
+                    initializeFirstRow(null);
+                else
+                    computeRow(i, null, 0);
+                if ((i + 1) % blockSize == 0) {
+                    checkpointScores[(i + 1) / blockSize] = Arrays.copyOf(previousScores, m + 1);
+                    checkpointInsertionScores[(i + 1) / blockSize] = Arrays.copyOf(previousInsertionScores, m + 1);
+                }
             }
-            if (i == 0 && j == 0) {
-                runTraceback = false;
+        }
+
+        /**
+         * Computes the rows of the block starting at the specified row and writes their traceback.
+         *
+         * @param blockStart The first row of the block; either 0 or a row for which a checkpoint was stored.
+         * @param blockSize  The number of rows per block.
+         * @param traceback  The packed traceback to write the block's cells to.
+         */
+        private void fillBlock(int blockStart, int blockSize, byte[] traceback) {
+            if (blockStart == 0) {
+                initializeFirstRow(traceback);
             } else {
-                tracebackDirection = tracebackMatrix[i][j];
-                if (tracebackDirection == '\u0000') // Prevents traceback to walk out of set alignment band.
-                    tracebackDirection = 'M';
+                System.arraycopy(checkpointScores[blockStart / blockSize], 0, previousScores, 0, m + 1);
+                System.arraycopy(checkpointInsertionScores[blockStart / blockSize], 0, previousInsertionScores, 0, m + 1);
+            }
+            int blockEnd = Math.min(n, blockStart + blockSize - 1);
+            for (int i = Math.max(1, blockStart); i <= blockEnd; i++)
+                computeRow(i, traceback, i - blockStart);
+        }
+
+        /**
+         * Initializes the first row with respect to the suffix gap mode.
+         *
+         * @param traceback The packed traceback to write the row to, or null.
+         */
+        private void initializeFirstRow(byte[] traceback) {
+            previousScores[0] = 0;
+            previousInsertionScores[0] = 0;
+            int rowRightBound = Math.min(band, m);
+            for (int j = 1; j <= rowRightBound; j++) {
+                int gapCost = marginalGapCost(suffixGapMode, j, m, gapOpenPenalty, gapExtendPenalty);
+                previousScores[j] = gapCost;
+                previousInsertionScores[j] = gapCost;
+                if (Objects.nonNull(traceback))
+                    setTracebackDirection(traceback, j, tracebackDeletion);
+            }
+            if (rowRightBound < m) {
+                previousScores[rowRightBound + 1] = unreachableScore;
+                previousInsertionScores[rowRightBound + 1] = unreachableScore;
             }
         }
-        Collections.reverse(tracebackPath);
-        // (3) Iterate over traceback path and construct aligned sequences.
-        int seq1Index = 0;
-        int seq2Index = 0;
-        for (Character character : tracebackPath) {
-            // Start walking along the traceback path.
-            tracebackDirection = character;
-            if (tracebackDirection == 'M') {
-                // CASE: Match or mismatch of nucleotide and amino-acid sequence.
-                alignedSequenceYBuilder.append(sequenceYBases[seq1Index]);
-                seq1Index += 1;
-                alignedSequenceXBuilder.append(sequenceXBases[seq2Index]);
-                seq2Index += 1;
-            } else if (tracebackDirection == 'D') {
-                // CASE: Deletion wrt. to first amino acid sequence.
-                alignedSequenceYBuilder.append(Constants.gapString);
-                alignedSequenceXBuilder.append(sequenceXBases[seq2Index]);
-                seq2Index += 1;
-            } else if (tracebackDirection == 'I') {
-                // CASE: Insertion wrt. to first amino acid sequence.
-                alignedSequenceYBuilder.append(sequenceYBases[seq1Index]);
-                seq1Index += 1;
-                alignedSequenceXBuilder.append(Constants.gapString);
+
+        /**
+         * Computes the band of the specified row from the previous row and rolls the rows.
+         *
+         * @param i             The row index.
+         * @param traceback     The packed traceback to write the row to, or null.
+         * @param tracebackRow  The index of the row within the traceback.
+         */
+        private void computeRow(int i, byte[] traceback, int tracebackRow) {
+            int jLeftBound = Math.max(1, i - band);
+            int jRightBound = Math.min(m, i + band);
+            int rowOffset = tracebackRow * width - rowStart(i);
+            int[] rowSubstitutionScores = substitutionScores[i - 1];
+            boolean writeTraceback = Objects.nonNull(traceback);
+            // Left neighbour of the band; this is the first column (prefix gap mode) if it lies within the band.
+            int deletionScore;
+            if (i <= band) {
+                int gapCost = marginalGapCost(prefixGapMode, i, n, gapOpenPenalty, gapExtendPenalty);
+                currentScores[0] = gapCost;
+                currentInsertionScores[0] = gapCost;
+                deletionScore = gapCost;
+                if (writeTraceback)
+                    setTracebackDirection(traceback, rowOffset, tracebackInsertion);
+            } else {
+                currentScores[jLeftBound - 1] = unreachableScore;
+                currentInsertionScores[jLeftBound - 1] = unreachableScore;
+                deletionScore = unreachableScore;
+            }
+            // Insertion and match scores only depend on the previous row; this branch-free loop can be vectorized by the JIT compiler.
+            for (int j = jLeftBound; j <= jRightBound; j++) {
+                currentInsertionScores[j] = Math.max(
+                        Math.max(previousScores[j] - gapOpenPenalty, previousInsertionScores[j] - gapExtendPenalty),
+                        unreachableScore
+                );
+                matchScores[j] = previousScores[j - 1] + rowSubstitutionScores[j - 1];
+            }
+            // Deletion scores depend on the current row and are computed sequentially, along with the cell scores; the
+            // score of the left cell is carried along and the traceback directions are packed into one byte per four cells.
+            int leftScore = currentScores[jLeftBound - 1];
+            int cell = rowOffset + jLeftBound;
+            int packedDirections = writeTraceback ? traceback[cell >>> 2] & ((1 << ((cell & 3) << 1)) - 1) : 0;
+            for (int j = jLeftBound; j <= jRightBound; j++, cell++) {
+                int insertionScore = currentInsertionScores[j];
+                int matchScore = matchScores[j];
+                deletionScore = Math.max(
+                        Math.max(leftScore - gapOpenPenalty, deletionScore - gapExtendPenalty),
+                        unreachableScore
+                );
+                // Ties are resolved in favour of insertions, then deletions, then matches; unreachable cells keep no direction.
+                int max = reachableScoreLimit;
+                int direction = tracebackNone;
+                if (insertionScore > max) {
+                    max = insertionScore;
+                    direction = tracebackInsertion;
+                }
+                if (deletionScore > max) {
+                    max = deletionScore;
+                    direction = tracebackDeletion;
+                }
+                if (matchScore > max) {
+                    max = matchScore;
+                    direction = tracebackMatch;
+                }
+                leftScore = direction == tracebackNone ? unreachableScore : max;
+                currentScores[j] = leftScore;
+                packedDirections |= direction << ((cell & 3) << 1);
+                if ((cell & 3) == 3) {
+                    if (writeTraceback)
+                        traceback[cell >>> 2] = (byte) packedDirections;
+                    packedDirections = 0;
+                }
             }
+            if (writeTraceback && (cell & 3) != 0)
+                traceback[cell >>> 2] = (byte) ((traceback[cell >>> 2] & -(1 << ((cell & 3) << 1))) | packedDirections);
+            if (jRightBound < m) {
+                currentScores[jRightBound + 1] = unreachableScore;
+                currentInsertionScores[jRightBound + 1] = unreachableScore;
+            }
+            // Roll rows.
+            int[] swap = previousScores;
+            previousScores = currentScores;
+            currentScores = swap;
+            swap = previousInsertionScores;
+            previousInsertionScores = currentInsertionScores;
+            currentInsertionScores = swap;
         }
-        // (4) Insert results into Tuple.
-        return new Tuple<>(alignedSequenceYBuilder.toString(), alignedSequenceXBuilder.toString());
     }
 
     /**
-     * Initializes a 2D matrix with the specified number of rows and columns.
-     * <p>
-     * This method creates a 2D array of doubles with the given dimensions and fills
-     * each cell with {@link Double#NEGATIVE_INFINITY}. It uses Java Streams to iterate
-     * over the rows and apply the fill operation.
+     * Key of the {@link #alignmentCache}.
      *
-     * @param rows The number of rows in the matrix.
-     * @param cols The number of columns in the matrix.
-     * @return A 2D array of doubles initialized with {@link Double#NEGATIVE_INFINITY}.
-     */
-    private static double[][] initializeMatrix(int rows, int cols) {
-        double[][] matrix = new double[rows][cols];
-        Arrays.stream(matrix).forEach(row -> Arrays.fill(row, Double.NEGATIVE_INFINITY));
-        return matrix;
+     * @param digest           SHA-256 digest of both aligned sequences.
+     * @param scoringName      The name of the scoring matrix.
+     * @param gapOpenPenalty   The penalty for opening a gap in the alignment.
+     * @param gapExtendPenalty The penalty for extending an existing gap in the alignment.
+     * @param left             The left-marginal gap mode.
+     * @param right            The right-marginal gap mode.
+     * @param bandWidth        The band-width, or null for non-banded alignment.
+     */
+    private record AlignmentKey(String digest, String scoringName, int gapOpenPenalty, int gapExtendPenalty,
+                                MarginalGaps left, MarginalGaps right, Integer bandWidth) {
+    }
+
+    /**
+     * Per-thread scratch buffers of {@link #globalSequenceAlignment}.
+     * <p>
+     * The rolling score rows and the packed traceback are only grown, never shrunk, so that repeated alignments of
+     * a thread do not allocate. Traceback buffers above {@link #maxRetainedTracebackBytes} are not retained.
+     */
+    private static final class AlignmentBuffers {
+
+        /**
+         * The maximal size of a traceback buffer that is retained between alignments.
+         */
+        private static final int maxRetainedTracebackBytes = 1 << 24;
+
+        private int[][] rows = new int[5][0];
+        private byte[] traceback = new byte[0];
+
+        /**
+         * Returns five score rows of at least the specified length.
+         *
+         * @param rowLength The number of columns of the alignment matrix.
+         * @return The previous and current score and insertion score rows, and a row for match scores.
+         */
+        private int[][] rows(int rowLength) {
+            if (rows[0].length < rowLength)
+                rows = new int[5][rowLength];
+            return rows;
+        }
+
+        /**
+         * Returns a traceback buffer for the specified number of cells; buffers are not cleared, as all cells of the
+         * band are written before they are read.
+         *
+         * @param cells The number of traceback cells.
+         * @return A packed traceback buffer with 2 bits per cell.
+         * @throws IllegalArgumentException If the number of cells exceeds the maximal traceback size.
+         */
+        private byte[] traceback(long cells) {
+            long bytes = (cells + 3) >>> 2;
+            if (cells > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Alignment band of %d cells exceeds the maximal traceback size.".formatted(cells));
+            if (traceback.length >= bytes)
+                return traceback;
+            byte[] buffer = new byte[(int) bytes];
+            if (bytes <= maxRetainedTracebackBytes)
+                traceback = buffer;
+            return buffer;
+        }
     }
 
     /**
@@ -481,40 +927,214 @@ public final class SequenceOperations {
 
     /**
      * Translates a DNA sequence into an amino-acid sequence. The translation is always performed in the 1-frame.
-     * Utilizes the <a href="https://github.com/biojava/biojava">BioJava library</a> for translation.
+     * <p>
+     * See {@link #translateSequence(byte[], boolean)} for details.
      *
      * @param sequence The DNA sequence to translate.
      * @param reverse  Whether to translate the reverse complement of the sequence.
      * @return The translated amino-acid sequence.
-     * @throws MusialException If an error occurs during translation.
+     * @throws MusialException If the sequence contains an invalid nucleotide symbol.
      */
     public static String translateSequence(String sequence, boolean reverse) throws MusialException {
         if (sequence.isEmpty()) return Constants.EMPTY;
-        String cachedTranslationKey = "%s-%s".formatted(reverse ? "rev" : "fwd", sequence);
-        // Check if the translation result is already cached.
-        if (translationCache.containsKey(cachedTranslationKey.hashCode())) {
-            return translationCache.get(cachedTranslationKey.hashCode());
+        return translateSequence(sequence.getBytes(StandardCharsets.ISO_8859_1), reverse);
+    }
+
+    /**
+     * Translates an ASCII encoded DNA sequence into an amino-acid sequence. The translation is always performed in the 1-frame.
+     * <p>
+     * The translation uses the bacterial, archaeal and plant plastid code (NCBI translation table 11) by a precomputed
+     * lookup table of the 64 codons and applies the following rules:
+     * <ul>
+     *   <li>A start codon (TTG, CTG, ATT, ATC, ATA, ATG or GTG) in the first frame is translated into methionine.</li>
+     *   <li>A stop codon in the last frame is trimmed; other stop codons are translated into {@code *}.</li>
+     *   <li>Codons containing IUPAC ambiguity symbols are translated into the amino acid encoded by all represented codons,
+     *   if unique, and into {@code X} otherwise. Codons containing gap symbols are translated into {@code X}.</li>
+     *   <li>Trailing bases that do not form a complete codon are ignored.</li>
+     * </ul>
+     * If {@code reverse} is set, the reverse complement of the sequence is translated by iterating the sequence backwards
+     * and complementing each base on the fly, i.e., without creating an intermediate sequence.
+     *
+     * @param sequence The ASCII encoded DNA sequence to translate; upper- and lowercase symbols are accepted.
+     * @param reverse  Whether to translate the reverse complement of the sequence.
+     * @return The translated amino-acid sequence.
+     * @throws MusialException If the sequence contains an invalid nucleotide symbol.
+     */
+    public static String translateSequence(byte[] sequence, boolean reverse) throws MusialException {
+        int length = sequence.length / 3;
+        byte[] translation = new byte[length];
+        for (int i = 0; i < length; i++) {
+            // Collect the masks of the three bases of the codon; wrt. the reverse complement, if specified.
+            int mask1, mask2, mask3;
+            if (reverse) {
+                int offset = sequence.length - 1 - 3 * i;
+                mask1 = complementMasks[nucleotideMask(sequence, offset)];
+                mask2 = complementMasks[nucleotideMask(sequence, offset - 1)];
+                mask3 = complementMasks[nucleotideMask(sequence, offset - 2)];
+            } else {
+                int offset = 3 * i;
+                mask1 = nucleotideMask(sequence, offset);
+                mask2 = nucleotideMask(sequence, offset + 1);
+                mask3 = nucleotideMask(sequence, offset + 2);
+            }
+            translation[i] = translateCodon(mask1, mask2, mask3, i == 0);
+        }
+        // Validate the symbols of trailing bases that do not form a complete codon; wrt. the reverse complement, these
+        // are the leading bases of the sequence.
+        int leftover = sequence.length - 3 * length;
+        for (int i = reverse ? 0 : 3 * length; i < (reverse ? leftover : sequence.length); i++)
+            nucleotideMask(sequence, i);
+        // Trim a terminal stop codon.
+        if (length > 0 && translation[length - 1] == Constants.stopCodon.charAt(0))
+            length--;
+        return new String(translation, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Translates a DNA sequence with integrated substitutions into an amino-acid sequence, given the translation of the
+     * DNA sequence without substitutions.
+     * <p>
+     * Instead of translating the complete sequence, only the codons affected by at least one substitution are translated
+     * and replaced in a copy of {@code translation}. The result equals {@link #translateSequence(String, boolean)} of the
+     * sequence with integrated substitutions, i.e., start codons in the first frame and terminal stop codons are handled
+     * the same way.
+     *
+     * @param sequence      The DNA sequence without substitutions.
+     * @param reverse       Whether to translate the reverse complement of the sequence.
+     * @param translation   The translation of {@code sequence} as returned by {@link #translateSequence(String, boolean)}.
+     * @param substitutions A map of 0-based indices of {@code sequence} to the substituted base at this index (wrt. the
+     *                      forward strand). Substitutions are expected to be single bases.
+     * @return The translated amino-acid sequence with integrated substitutions.
+     * @throws MusialException If a substitution specifies an invalid nucleotide symbol.
+     */
+    public static String translateSubstitutedSequence(String sequence, boolean reverse, String translation,
+                                                      Map<Integer, String> substitutions) throws MusialException {
+        int length = sequence.length() / 3;
+        byte[] substitutedTranslation = Arrays.copyOf(translation.getBytes(StandardCharsets.ISO_8859_1), length);
+        // Restore a trimmed terminal stop codon.
+        if (translation.length() < length)
+            substitutedTranslation[length - 1] = (byte) Constants.stopCodon.charAt(0);
+
+        byte[] codon = new byte[3];
+        int lastCodon = -1;
+        for (int index : new TreeSet<>(substitutions.keySet())) {
+            // Determine the codon affected by the substitution; bases of incomplete codons are not translated.
+            int codonIndex = (reverse ? sequence.length() - 1 - index : index) / 3;
+            if (codonIndex >= length || codonIndex == lastCodon)
+                continue;
+            lastCodon = codonIndex;
+            // Collect the codon bases wrt. the forward strand and integrate all substitutions of the codon.
+            int offset = reverse ? sequence.length() - 3 * (codonIndex + 1) : 3 * codonIndex;
+            for (int i = 0; i < 3; i++) {
+                String substitution = substitutions.get(offset + i);
+                codon[i] = (byte) (substitution == null ? sequence.charAt(offset + i) : substitution.charAt(0));
+            }
+            substitutedTranslation[codonIndex] = reverse
+                    ? translateCodon(complementMasks[nucleotideMask(codon, 2)], complementMasks[nucleotideMask(codon, 1)],
+                    complementMasks[nucleotideMask(codon, 0)], codonIndex == 0)
+                    : translateCodon(nucleotideMask(codon, 0), nucleotideMask(codon, 1), nucleotideMask(codon, 2), codonIndex == 0);
         }
-        try {
-            // Define ambiguity compound sets. See: https://github.com/biojava/biojava-tutorial/blob/master/core/translating.md
-            AmbiguityDNACompoundSet ambiguityDNACompoundSet = AmbiguityDNACompoundSet.getDNACompoundSet();
-            CompoundSet<NucleotideCompound> nucleotideCompoundSet = AmbiguityRNACompoundSet.getRNACompoundSet();
-            // Initialize the transcription engine. See: https://github.com/biojava/biojava-tutorial/blob/master/core/translating.md
-            TranscriptionEngine engine = new
-                    TranscriptionEngine.Builder().dnaCompounds(ambiguityDNACompoundSet).rnaCompounds(nucleotideCompoundSet).build();
-            // Initialize the DNA sequence.
-            Sequence<NucleotideCompound> dna = new DNASequence(sequence);
-            String translatedSequence;
-            if (reverse)
-                translatedSequence = engine.multipleFrameTranslation(dna, Frame.REVERSED_ONE).get(Frame.REVERSED_ONE).getSequenceAsString();
-            else
-                translatedSequence = engine.multipleFrameTranslation(dna, Frame.ONE).get(Frame.ONE).getSequenceAsString();
-            // Cache the translation result.
-            translationCache.put(cachedTranslationKey.hashCode(), translatedSequence);
-            return translatedSequence;
-        } catch (Exception e) {
-            throw new MusialException("org.biojava.nbio.core.sequence.DNASequence: " + e.getMessage());
+        // Trim a terminal stop codon.
+        if (length > 0 && substitutedTranslation[length - 1] == Constants.stopCodon.charAt(0))
+            length--;
+        return new String(substitutedTranslation, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the nucleotide mask (see {@link #nucleotideMasks}) of the symbol at the specified index of an ASCII encoded sequence.
+     *
+     * @param sequence The ASCII encoded DNA sequence.
+     * @param index    The index of the symbol in the sequence.
+     * @return The nucleotide mask of the symbol.
+     * @throws MusialException If the symbol is not a valid nucleotide symbol.
+     */
+    private static int nucleotideMask(byte[] sequence, int index) throws MusialException {
+        byte symbol = sequence[index];
+        int mask = symbol < 0 ? 0 : nucleotideMasks[symbol];
+        if (mask == 0)
+            throw new MusialException("Translation failed; invalid nucleotide symbol %s at position %d."
+                    .formatted((char) (symbol & 0xFF), index + 1));
+        return mask;
+    }
+
+    /**
+     * Translates a single codon given as the nucleotide masks (see {@link #nucleotideMasks}) of its three bases.
+     *
+     * @param mask1 The nucleotide mask of the first base.
+     * @param mask2 The nucleotide mask of the second base.
+     * @param mask3 The nucleotide mask of the third base.
+     * @param first Whether the codon is the first codon of the sequence, i.e., start codons are translated into methionine.
+     * @return The ASCII encoded amino acid.
+     */
+    private static byte translateCodon(int mask1, int mask2, int mask3, boolean first) {
+        // Codons with gaps are not translated.
+        if (((mask1 | mask2 | mask3) & 16) != 0)
+            return 'X';
+        byte aminoAcid = 0;
+        boolean start = true;
+        // Iterate over all codons represented by the masks; without ambiguity symbols, this is a single codon.
+        for (int b1 = 0; b1 < 4; b1++) {
+            if ((mask1 & (1 << b1)) == 0) continue;
+            for (int b2 = 0; b2 < 4; b2++) {
+                if ((mask2 & (1 << b2)) == 0) continue;
+                for (int b3 = 0; b3 < 4; b3++) {
+                    if ((mask3 & (1 << b3)) == 0) continue;
+                    int codon = (b1 << 4) | (b2 << 2) | b3;
+                    start &= startCodons[codon];
+                    if (aminoAcid == 0)
+                        aminoAcid = codonTable[codon];
+                    else if (aminoAcid != codonTable[codon])
+                        aminoAcid = 'X';
+                }
+            }
         }
+        return (first && start) ? (byte) 'M' : aminoAcid;
+    }
+
+    /**
+     * Returns the index of an unambiguous codon in the codon table of NCBI translation table 11, i.e.,
+     * {@code 16 * b1 + 4 * b2 + b3} with {@code T = 0}, {@code C = 1}, {@code A = 2} and {@code G = 3}.
+     *
+     * @param codon   The three nucleotide symbols of the codon wrt. the forward strand (case-insensitive; U is treated as T).
+     * @param reverse Whether the codon is read on the reverse strand, i.e., its reverse complement is indexed.
+     * @return The index of the codon, or {@code -1} if the codon contains ambiguous, gap or invalid symbols.
+     */
+    public static int codonIndex(CharSequence codon, boolean reverse) {
+        if (codon.length() != 3)
+            return -1;
+        int index = 0;
+        for (int i = 0; i < 3; i++) {
+            char symbol = codon.charAt(reverse ? 2 - i : i);
+            int mask = symbol < 128 ? nucleotideMasks[symbol] : 0;
+            if (Integer.bitCount(mask) != 1 || mask == 16)
+                return -1;
+            // Complementing a base flips the second bit of its index (T <-> A, C <-> G).
+            int base = Integer.numberOfTrailingZeros(mask);
+            index = (index << 2) | (reverse ? base ^ 2 : base);
+        }
+        return index;
+    }
+
+    /**
+     * Translates an unambiguous codon (see {@link #codonIndex}) according to NCBI translation table 11; start codons
+     * are translated into their amino acid, i.e., not into methionine.
+     *
+     * @param codonIndex The index of the codon.
+     * @return The amino acid encoded by the codon; {@code *} for stop codons.
+     */
+    public static char translateCodon(int codonIndex) {
+        return (char) codonTable[codonIndex];
+    }
+
+    /**
+     * Checks whether an unambiguous codon (see {@link #codonIndex}) is a start codon of NCBI translation table 11, i.e.,
+     * one of TTG, CTG, ATT, ATC, ATA, ATG and GTG.
+     *
+     * @param codonIndex The index of the codon.
+     * @return {@code true} if the codon is a start codon, {@code false} otherwise.
+     */
+    public static boolean isStartCodon(int codonIndex) {
+        return startCodons[codonIndex];
     }
 
     /**
@@ -0,0 +1,46 @@
+package datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ContigTest {
+
+    private static List<String> alternatives(Contig contig, String sampleName) {
+        return contig.getVariantsBySample(sampleName).stream().map(tuple -> tuple.b).toList();
+    }
+
+    @Test
+    void indexSampleVariant_keepsSmallestAlternativeIndependentOfOrder() {
+        Contig forward = new Contig("c", null);
+        forward.indexSampleVariant("s", 10, "C");
+        forward.indexSampleVariant("s", 10, "A");
+        forward.indexSampleVariant("s", 5, "T");
+        Contig backward = new Contig("c", null);
+        backward.indexSampleVariant("s", 10, "A");
+        backward.indexSampleVariant("s", 10, "C");
+        backward.indexSampleVariant("s", 5, "T");
+        assertEquals(List.of("T", "A"), alternatives(forward, "s"));
+        assertEquals(alternatives(forward, "s"), alternatives(backward, "s"));
+    }
+
+    @Test
+    void buildSampleIndex_matchesIncrementalIndex() {
+        Contig contig = new Contig("c", null);
+        HashMap<String, VariantInformation> alternatives = new HashMap<>();
+        for (String alternative : new String[]{"G", "C", "T", "A"}) {
+            VariantInformation variantInformation = new VariantInformation("N", alternative);
+            variantInformation.addSampleOccurrence("s");
+            alternatives.put(alternative, variantInformation);
+            contig.indexSampleVariant("s", 7, alternative);
+        }
+        contig.variants.put(7, alternatives);
+        List<String> incremental = alternatives(contig, "s");
+        contig.buildSampleIndex();
+        assertEquals(List.of("A"), incremental);
+        assertEquals(incremental, alternatives(contig, "s"));
+    }
+}
@@ -0,0 +1,29 @@
+package datastructure;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Objects;
+
+/**
+ * Loads the test resources shared by the tests of multiple packages.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Loads the test storage ({@code /storage.json}) of five samples on a single contig with the forward strand features
+     * gene0 (4-33) and gene1 (41-70); S3 and S4 have a low frequency ({@code f}) call at position 10 and 48 (spanning
+     * 48 to 50), respectively, and S4 has a low coverage ({@code x}) call at position 20.
+     *
+     * @return A new {@link Storage} instance of the test storage.
+     * @throws IOException        If the test storage can not be read.
+     * @throws URISyntaxException If the test storage can not be located.
+     */
+    public static Storage storage() throws IOException, URISyntaxException {
+        return Storage.Factory.deserialize(new File(Objects.requireNonNull(
+                Fixtures.class.getResource("/storage.json")).toURI()));
+    }
+}
@@ -0,0 +1,173 @@
+package datastructure;
+
+import htsjdk.samtools.util.Tuple;
+import org.apache.commons.lang3.tuple.Triple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utility.Constants;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StorageTest {
+
+    private static final String effectKey = Constants.snpEffAttributeKeyPrefix + Constants.snpEffKeys.get(1);
+
+    private static Tuple<Triple<String, Integer, String>, VariantInformation> variant(Storage storage, int position,
+                                                                                      String alternative) {
+        return new Tuple<>(Triple.of("chr1", position, alternative),
+                storage.getContig("chr1").getVariantInformation(position, alternative));
+    }
+
+    /**
+     * Sequence of a reverse strand CDS at 3-14 coding for TTG GCT AAA TAA, i.e., M A K and a terminal stop codon.
+     */
+    private static final String reverseSequence = "GGTTATTTAGCCAAGG";
+
+    private static Feature reverseFeature() {
+        Feature feature = new Feature("gene2", "chr1", 3, 14, '-', "gene", "G2-1");
+        TreeMap<String, List<Tuple<Integer, Integer>>> children = new TreeMap<>();
+        children.put("mRNA", List.of(new Tuple<>(3, 14)));
+        children.put("CDS", List.of(new Tuple<>(3, 14)));
+        feature.setChildren(children);
+        return feature;
+    }
+
+    /**
+     * Predicts the effect of an SNV and returns its effect, impact, feature type, feature id, biotype, CDS and protein
+     * position attributes, or null if the variant is left to SnpEff.
+     */
+    private static List<String> predictCodingEffect(Storage storage, Feature feature, String sequence, int position,
+                                                    String alternative) {
+        Tuple<Triple<String, Integer, String>, VariantInformation> variant = new Tuple<>(
+                Triple.of(feature.contig, position, alternative),
+                new VariantInformation(String.valueOf(sequence.charAt(position - 1)), alternative));
+        if (!storage.vcfHandler.predictCodingEffect(variant, feature, sequence))
+            return null;
+        return Stream.of(1, 2, 5, 6, 7, 12, 13)
+                .map(key -> variant.b.getAttribute(Constants.snpEffAttributeKeyPrefix + Constants.snpEffKeys.get(key)))
+                .toList();
+    }
+
+    @Test
+    void predictCodingEffect_forwardStrand() throws Exception {
+        Storage storage = Fixtures.storage();
+        Feature feature = storage.getFeature("gene0");
+        String sequence = storage.getContig("chr1").getSequence();
+        // The CDS at 4-33 codes for ATG, eight times GCT and TAA, i.e., a protein of length 9.
+        assertEquals(List.of("synonymous_variant", "LOW", "transcript", "G0", "protein_coding", "6/30", "2/9"),
+                predictCodingEffect(storage, feature, sequence, 9, "C"));
+        assertEquals(List.of("missense_variant", "MODERATE", "transcript", "G0", "protein_coding", "4/30", "2/9"),
+                predictCodingEffect(storage, feature, sequence, 7, "A"));
+        assertEquals(List.of("start_lost", "HIGH", "transcript", "G0", "protein_coding", "2/30", "1/9"),
+                predictCodingEffect(storage, feature, sequence, 5, "C"));
+        assertEquals(List.of("stop_lost", "HIGH", "transcript", "G0", "protein_coding", "29/30", "10/9"),
+                predictCodingEffect(storage, feature, sequence, 32, "C"));
+    }
+
+    @Test
+    void predictCodingEffect_reverseStrand() throws Exception {
+        Storage storage = Fixtures.storage();
+        Feature feature = reverseFeature();
+        // The start codon TTG is lost even though the alternative codon TAG is a stop codon.
+        assertEquals(List.of("start_lost", "HIGH", "transcript", "G2", "protein_coding", "2/12", "1/3"),
+                predictCodingEffect(storage, feature, reverseSequence, 13, "T"));
+        assertEquals(List.of("missense_variant", "MODERATE", "transcript", "G2", "protein_coding", "4/12", "2/3"),
+                predictCodingEffect(storage, feature, reverseSequence, 11, "T"));
+        assertEquals(List.of("stop_gained", "HIGH", "transcript", "G2", "protein_coding", "7/12", "3/3"),
+                predictCodingEffect(storage, feature, reverseSequence, 8, "A"));
+    }
+
+    @Test
+    void predictCodingEffect_leavesRetainedStartAndStopToSnpEff() throws Exception {
+        Storage storage = Fixtures.storage();
+        Feature feature = storage.getFeature("gene0");
+        String sequence = storage.getContig("chr1").getSequence();
+        // ATG to ATA retains a start codon, TAA to TAG retains the stop codon.
+        assertNull(predictCodingEffect(storage, feature, sequence, 6, "A"));
+        assertNull(predictCodingEffect(storage, feature, sequence, 33, "G"));
+        assertNull(predictCodingEffect(storage, reverseFeature(), reverseSequence, 3, "C"));
+    }
+
+    @Test
+    void repairAnnotationStore_removesIncompleteRecord(@TempDir Path directory) throws Exception {
+        Path store = directory.resolve("annotations.vcf");
+        Files.writeString(store, "chr1\t10\t.\tG\tA\t.\t.\tANN=A|a\nchr1\t20\t.\tC\tA\t.\t.\tANN=A|b\nchr1\t50\t.\tA\tG\t.\t.\tAN",
+                StandardCharsets.UTF_8);
+        Fixtures.storage().vcfHandler.repairAnnotationStore(store);
+        assertEquals("chr1\t10\t.\tG\tA\t.\t.\tANN=A|a\nchr1\t20\t.\tC\tA\t.\t.\tANN=A|b\n",
+                Files.readString(store, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void repairAnnotationStore_keepsCompleteStore(@TempDir Path directory) throws Exception {
+        Path store = directory.resolve("annotations.vcf");
+        Files.writeString(store, "chr1\t10\t.\tG\tA\t.\t.\tANN=A|a\n", StandardCharsets.UTF_8);
+        Fixtures.storage().vcfHandler.repairAnnotationStore(store);
+        assertEquals("chr1\t10\t.\tG\tA\t.\t.\tANN=A|a\n", Files.readString(store, StandardCharsets.UTF_8));
+        Path incompleteStore = directory.resolve("incomplete.vcf");
+        Files.writeString(incompleteStore, "chr1\t10", StandardCharsets.UTF_8);
+        Fixtures.storage().vcfHandler.repairAnnotationStore(incompleteStore);
+        assertEquals(0, Files.size(incompleteStore));
+    }
+
+    @Test
+    void transferStoredAnnotations_usesFirstRecord(@TempDir Path directory) throws Exception {
+        Storage storage = Fixtures.storage();
+        Path database = directory.resolve("database");
+        Files.createDirectories(database);
+        Files.writeString(database.resolve("annotations.vcf"), String.join("\n",
+                "chr1\t50\t.\tA\tG\t.\t.\tANN=G|missense_variant|MODERATE",
+                "chr1\t10\t.\tG\tA\t.\t.\tANN=A|synonymous_variant|LOW",
+                "chr1\t50\t.\tA\tG\t.\t.\tANN=G|stop_gained|HIGH",
+                "chr1\t50\t.\tA\tG\t.\t.\tANN=G|start_lost|HI"), StandardCharsets.UTF_8);
+        ArrayList<Tuple<Triple<String, Integer, String>, VariantInformation>> variants = new ArrayList<>(List.of(
+                variant(storage, 50, "G"), variant(storage, 20, "A")));
+
+        List<Tuple<Triple<String, Integer, String>, VariantInformation>> unseenVariants =
+                storage.vcfHandler.transferStoredAnnotations(database, variants);
+
+        assertEquals(1, unseenVariants.size());
+        assertEquals(20, unseenVariants.get(0).a.getMiddle());
+        assertEquals("missense_variant", variants.get(0).b.getAttribute(effectKey));
+        assertEquals(Constants.EMPTY, variants.get(1).b.getAttribute(effectKey));
+        // The incomplete last record is removed from the store.
+        assertTrue(Files.readString(database.resolve("annotations.vcf"), StandardCharsets.UTF_8)
+                .endsWith("stop_gained|HIGH\n"));
+    }
+
+    @Test
+    void bucketVariantsByFeatureAndSample_keepsSmallestAlternativeAsIndex() throws Exception {
+        Storage storage = Fixtures.storage();
+        Contig contig = storage.getContig("chr1");
+        // "CT" precedes "CA" in the iteration order of the variants at the position.
+        HashMap<String, VariantInformation> alternatives = new HashMap<>();
+        for (String alternative : new String[]{"CT", "CA"}) {
+            VariantInformation variantInformation = new VariantInformation("C-", alternative);
+            variantInformation.addSampleOccurrence("S0");
+            alternatives.put(alternative, variantInformation);
+            contig.indexSampleVariant("S0", 12, alternative);
+        }
+        contig.variants.put(12, alternatives);
+
+        Map<Feature, TreeMap<Integer, ArrayList<Tuple<Integer, String>>>> buckets = new HashMap<>();
+        storage.bucketVariantsByFeatureAndSample(contig, Map.of("S0", 0), buckets);
+
+        List<String> bucket = buckets.get(storage.getFeature("gene0")).get(0).stream()
+                .map(variant -> variant.a + ":" + variant.b).toList();
+        assertEquals(List.of("10:A", "12:CA", "20:A"), bucket);
+        assertEquals(bucket, contig.getVariantsBySampleAndLocation("S0", 4, 33).stream()
+                .map(variant -> variant.a + ":" + variant.b).toList());
+    }
+}
@@ -0,0 +1,185 @@
+package main;
+
+import datastructure.Fixtures;
+import datastructure.Sample;
+import datastructure.Storage;
+import exceptions.MusialException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+public class MusialTest {
+
+    @Test
+    void genotypeWrite_encodesPlinkBed(@TempDir Path directory) throws Exception {
+        Storage storage = Fixtures.storage();
+        List<Sample> samples = storage.getSamples().stream().sorted(Comparator.comparing(sample -> sample.name)).toList();
+        String prefix = directory.resolve("genotypes").toString();
+
+        assertEquals(4, Musial.Genotype.write(storage, samples, prefix));
+
+        assertEquals(List.of("S0\tS0\t0\t0\t0\t-9", "S1\tS1\t0\t0\t0\t-9", "S2\tS2\t0\t0\t0\t-9", "S3\tS3\t0\t0\t0\t-9",
+                "S4\tS4\t0\t0\t0\t-9"), Files.readAllLines(Path.of(prefix + ".fam"), StandardCharsets.UTF_8));
+        List<String> bim = Files.readAllLines(Path.of(prefix + ".bim"), StandardCharsets.UTF_8);
+        byte[] bed = Files.readAllBytes(Path.of(prefix + ".bed"));
+        assertArrayEquals(new byte[]{0x6C, 0x1B, 0x01}, Arrays.copyOf(bed, 3));
+        assertEquals(3 + 2 * bim.size(), bed.length);
+
+        // Two bytes per variant; S0 to S3 in the first byte, S4 in the low-order bits of the second byte, which are
+        // followed by zero padding. 00 is the alternative (A1), 11 the reference (A2), and 01 a missing genotype.
+        Map<String, String> rows = new HashMap<>();
+        for (int i = 0; i < bim.size(); i++)
+            rows.put(bim.get(i), "%02X%02X".formatted(bed[3 + 2 * i], bed[4 + 2 * i]));
+        assertEquals(Map.of(
+                "chr1\tchr1:10:G:A\t0\t10\tA\tG", "7003",
+                "chr1\tchr1:20:C:A\t0\t20\tA\tC", "FC01",
+                "chr1\tchr1:20:C:G\t0\t20\tG\tC", "CF01",
+                "chr1\tchr1:50:A:G\t0\t50\tG\tA", "F301"), rows);
+    }
+
+    @Test
+    void viewAddRegion_mergesOverlappingAndAdjacentRegions() {
+        Map<String, NavigableMap<Integer, Integer>> regions = new HashMap<>();
+        Musial.View.addRegion(regions, "chr1", 10, 20);
+        Musial.View.addRegion(regions, "chr1", 30, 40);
+        Musial.View.addRegion(regions, "chr1", 50, 60);
+        Musial.View.addRegion(regions, "chr2", 15, 25);
+        assertEquals(Map.of(10, 20, 30, 40, 50, 60), regions.get("chr1"));
+        // Overlaps the first and is adjacent to the second region.
+        Musial.View.addRegion(regions, "chr1", 18, 29);
+        assertEquals(Map.of(10, 40, 50, 60), regions.get("chr1"));
+        // Contained in an existing region.
+        Musial.View.addRegion(regions, "chr1", 52, 55);
+        assertEquals(Map.of(10, 40, 50, 60), regions.get("chr1"));
+        // Spans all regions.
+        Musial.View.addRegion(regions, "chr1", 5, 61);
+        assertEquals(Map.of(5, 61), regions.get("chr1"));
+        assertEquals(Map.of(15, 25), regions.get("chr2"));
+    }
+
+    @Test
+    void viewReadRegions_convertsBedToOneBasedRegions(@TempDir Path directory) throws Exception {
+        Path bed = directory.resolve("regions.bed");
+        Files.writeString(bed, String.join("\n",
+                "track name=test",
+                "# comment",
+                "chr1\t0\t10\tfirst",
+                "chr1\t19\t20",
+                "chr1\t30\t30",
+                "",
+                "chr2\t4\t8\tsecond\t0\t+"), StandardCharsets.UTF_8);
+        Map<String, NavigableMap<Integer, Integer>> regions = new HashMap<>();
+        Musial.View.readRegions(bed.toFile(), regions);
+        assertEquals(Map.of("chr1", Map.of(1, 10, 20, 20), "chr2", Map.of(5, 8)), regions);
+
+        Files.writeString(bed, "chr1\t0\n", StandardCharsets.UTF_8);
+        assertThrowsExactly(MusialException.class, () -> Musial.View.readRegions(bed.toFile(), new HashMap<>()));
+    }
+
+    @Test
+    void viewSelectRegions_selectsSubMapsOfContig() {
+        NavigableMap<Integer, String> map = new TreeMap<>(Map.of(1, "a", 5, "b", 10, "c", 15, "d", 20, "e"));
+        Map<String, NavigableMap<Integer, Integer>> regions = new HashMap<>();
+        Musial.View.addRegion(regions, "chr1", 5, 10);
+        Musial.View.addRegion(regions, "chr1", 18, 30);
+        Musial.View.addRegion(regions, "chr2", 1, 30);
+
+        assertEquals(List.of(Map.of(5, "b", 10, "c"), Map.of(20, "e")), Musial.View.selectRegions(map, "chr1", regions));
+        assertEquals(List.of(), Musial.View.selectRegions(map, "chr3", regions));
+        assertEquals(List.of(map), Musial.View.selectRegions(map, "chr1", new HashMap<>()));
+    }
+
+    @Test
+    void viewParseFilters_resolvesNamesPositionsAndRegions(@TempDir Path directory) throws Exception {
+        Storage storage = Fixtures.storage();
+        Path bed = directory.resolve("regions.bed");
+        Files.writeString(bed, "chr1\t59\t70\n", StandardCharsets.UTF_8);
+        Set<String> features = new HashSet<>(), samples = new HashSet<>();
+        Map<String, NavigableMap<Integer, Integer>> regions = new HashMap<>();
+        Musial.View.parseFilters(storage, Set.of("gene0", "S1", "10", "chr1:40-50", "gene1:1-2", bed.toString(), "other"),
+                features, samples, regions);
+        assertEquals(Set.of("gene0"), features);
+        assertEquals(Set.of("S1"), samples);
+        assertEquals(Map.of("chr1", Map.of(10, 10, 40, 50, 60, 70), "gene1", Map.of(1, 2)), regions);
+    }
+
+    @Test
+    void viewParseFilters_rejectsMissingBedFile(@TempDir Path directory) throws Exception {
+        Storage storage = Fixtures.storage();
+        String bed = directory.resolve("missing.bed").toString();
+        assertThrowsExactly(MusialException.class, () -> Musial.View.parseFilters(storage, Set.of(bed),
+                new HashSet<>(), new HashSet<>(), new HashMap<>()));
+    }
+
+    private static String resource(String name) throws Exception {
+        return Files.readString(Path.of(Objects.requireNonNull(MusialTest.class.getResource(name)).toURI()),
+                StandardCharsets.UTF_8);
+    }
+
+    private static String view(Storage storage, String content, Set<String> filters) throws Exception {
+        return view(storage, content, filters, false);
+    }
+
+    private static String view(Storage storage, String content, Set<String> filters, boolean sparse) throws Exception {
+        Set<String> features = new HashSet<>(), samples = new HashSet<>();
+        Map<String, NavigableMap<Integer, Integer>> regions = new HashMap<>();
+        Musial.View.parseFilters(storage, filters, features, samples, regions);
+        StringWriter writer = new StringWriter();
+        Musial.View.writeTable(Musial.View.table(storage, content, features, samples, regions), writer, content, sparse);
+        return writer.toString();
+    }
+
+    @Test
+    void viewTable_matchesDenseOutput() throws Exception {
+        Storage storage = Fixtures.storage();
+        for (String content : Musial.View.content) {
+            assertEquals(resource("/view/%s.tsv".formatted(content)), view(storage, content, Set.of()), content);
+            assertEquals(resource("/view/%s.filtered.tsv".formatted(content)),
+                    view(storage, content, Set.of("gene0", "S1", "S3", "10", "50")), content);
+        }
+    }
+
+    /**
+     * Converts a dense table into the sparse long format, i.e., one line per cell that differs from the default content.
+     */
+    private static String sparse(String dense, int identifierColumns, String columnHeader, String valueHeader,
+                                 String defaultContent) {
+        List<String[]> lines = dense.lines().map(line -> line.split("\t", -1)).toList();
+        String[] headers = lines.get(0);
+        StringBuilder sparse = new StringBuilder(String.join("\t", Arrays.copyOf(headers, identifierColumns)))
+                .append('\t').append(columnHeader).append('\t').append(valueHeader).append('\n');
+        for (String[] line : lines.subList(1, lines.size())) {
+            String identifier = String.join("\t", Arrays.copyOf(line, identifierColumns));
+            for (int i = identifierColumns; i < line.length; i++) {
+                if (!line[i].equals(defaultContent))
+                    sparse.append(identifier).append('\t').append(headers[i]).append('\t').append(line[i]).append('\n');
+            }
+        }
+        return sparse.toString();
+    }
+
+    @Test
+    void viewTable_sparseMatchesDenseOutput() throws Exception {
+        Storage storage = Fixtures.storage();
+        assertEquals(sparse(resource("/view/type.tsv"), 2, "sample", "id", "synonymous"),
+                view(storage, "type", Set.of(), true));
+        assertEquals(sparse(resource("/view/call.tsv"), 3, "sample", "call", "."),
+                view(storage, "call", Set.of(), true));
+        assertEquals(sparse(resource("/view/call.filtered.tsv"), 3, "sample", "call", "."),
+                view(storage, "call", Set.of("gene0", "S1", "S3", "10", "50"), true));
+        assertEquals(String.join("\n",
+                "contig\tposition\treference\tsample\tcall",
+                "chr1\t10\tG\tS1\t1;30;99;G:.:0:200,G:A:30:0",
+                "chr1\t10\tG\tS3\tf1;9;99;G:.:5:200,G:A:4:0",
+                "chr1\t50\tA\tS1\t1;30;99;A:.:0:200,A:G:30:0\n"), view(storage, "call", Set.of("S1", "S3", "10", "50"), true));
+    }
+}
@@ -0,0 +1,100 @@
+package utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusteringTest {
+
+    /**
+     * Creates three groups of 20 samples with disjoint variant sets; each sample carries the ten core variants of its
+     * group and two of ten further variants of its group.
+     */
+    private static LinkedHashMap<String, Map<Integer, String>> separableSamples() {
+        LinkedHashMap<String, Map<Integer, String>> samples = new LinkedHashMap<>();
+        Random random = new Random(7);
+        for (int group = 0; group < 3; group++) {
+            for (int i = 0; i < 20; i++) {
+                Map<Integer, String> variants = new HashMap<>();
+                for (int position = 0; position < 10; position++)
+                    variants.put(group * 1000 + position, "A");
+                variants.put(group * 1000 + 10 + random.nextInt(10), "C");
+                variants.put(group * 1000 + 10 + random.nextInt(10), "G");
+                samples.put("g%d.s%d".formatted(group, i), variants);
+            }
+        }
+        return samples;
+    }
+
+    private static Map<String, Integer> labels(Clustering clustering, Map<String, Map<Integer, String>> samples) {
+        samples.forEach(clustering::addToDataset);
+        clustering.train();
+        Map<String, Integer> labels = new HashMap<>();
+        clustering.getClusteringResult().forEach(entry -> labels.put(entry.name(), entry.label()));
+        return labels;
+    }
+
+    /**
+     * Asserts that two labelings describe the same partition, i.e., they agree on outliers and their cluster labels
+     * map one-to-one onto each other.
+     */
+    private static void assertSamePartition(Map<String, Integer> expected, Map<String, Integer> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        Map<Integer, Integer> forward = new HashMap<>(), backward = new HashMap<>();
+        for (String name : expected.keySet()) {
+            int e = expected.get(name), a = actual.get(name);
+            assertEquals(e == 0, a == 0, "Outlier mismatch of " + name);
+            if (e == 0) continue;
+            assertEquals(a, forward.computeIfAbsent(e, k -> a), "Split cluster at " + name);
+            assertEquals(e, backward.computeIfAbsent(a, k -> e), "Merged clusters at " + name);
+        }
+    }
+
+    @Test
+    void train_exactSeparatesGroups() {
+        Map<String, Integer> exact = labels(new Clustering(), separableSamples());
+        Set<Integer> clusters = new HashSet<>(exact.values());
+        clusters.remove(0);
+        assertEquals(3, clusters.size());
+    }
+
+    @Test
+    void train_approximateMatchesExactOnSeparableData() {
+        LinkedHashMap<String, Map<Integer, String>> samples = separableSamples();
+        Map<String, Integer> exact = labels(new Clustering(), samples);
+        for (int threshold : new int[]{10, 25}) {
+            Clustering approximate = new Clustering(threshold, 1);
+            Map<String, Integer> approximateLabels = labels(approximate, samples);
+            assertTrue(approximate.isApproximate());
+            assertSamePartition(exact, approximateLabels);
+        }
+    }
+
+    @Test
+    void train_approximateScoresIsolatedSampleAsOutlier() {
+        LinkedHashMap<String, Map<Integer, String>> samples = separableSamples();
+        Map<Integer, String> isolated = new HashMap<>();
+        for (int position = 0; position < 12; position++)
+            isolated.put(9000 + position, "T");
+        samples.put("isolated", isolated);
+        Clustering clustering = new Clustering(10, 1);
+        samples.forEach(clustering::addToDataset);
+        clustering.train();
+        assertTrue(clustering.isApproximate());
+        Clustering.Entry entry = clustering.getClusteringResult().stream()
+                .filter(e -> e.name().equals("isolated")).findFirst().orElseThrow();
+        assertEquals(0, entry.label());
+        assertEquals(1.0, entry.outlierScore());
+    }
+
+    @Test
+    void train_belowThresholdIsExact() {
+        Clustering clustering = new Clustering(100, 1);
+        labels(clustering, separableSamples());
+        assertFalse(clustering.isApproximate());
+    }
+}
@@ -3,11 +3,20 @@ package utility;
 import exceptions.MusialException;
 import htsjdk.samtools.util.Tuple;
 import org.apache.commons.lang3.tuple.Triple;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.AmbiguityRNACompoundSet;
+import org.biojava.nbio.core.sequence.transcription.Frame;
+import org.biojava.nbio.core.sequence.transcription.TranscriptionEngine;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 @SuppressWarnings("SpellCheckingInspection")
@@ -130,6 +139,57 @@ public class SequenceOperationsTest {
         assertEquals(new Tuple<>("ACDEFGHIKLMNPQRSTVWY", "--------------------"), result);
     }
 
+    @Test
+    void globalProteinSequenceAlignment_bandWiderThanSequenceB() {
+        String sequenceA = "MKTAYIAKQR";
+        String sequenceB = "MKT";
+        Tuple<String, String> result = SequenceOperations.globalProteinSequenceAlignment(sequenceA, sequenceB, 10, 6,
+                SequenceOperations.MarginalGaps.FORBID, SequenceOperations.MarginalGaps.PENALIZE, 7);
+        assertEquals(new Tuple<>("MKTAYIAKQR", "MKT-------"), result);
+    }
+
+    @Test
+    void globalSequenceAlignment_checkpointedTracebackMatchesFullTraceback() {
+        Random random = new Random(13);
+        String nucleotides = "ACGTN";
+        for (int k = 0; k < 50; k++) {
+            StringBuilder sequenceA = new StringBuilder();
+            for (int i = 0; i < 200 + random.nextInt(200); i++)
+                sequenceA.append(nucleotides.charAt(random.nextInt(nucleotides.length())));
+            StringBuilder sequenceB = new StringBuilder(sequenceA);
+            for (int i = 0; i < 10; i++) {
+                int position = random.nextInt(sequenceB.length());
+                switch (random.nextInt(3)) {
+                    case 0 -> sequenceB.setCharAt(position, nucleotides.charAt(random.nextInt(nucleotides.length())));
+                    case 1 -> sequenceB.insert(position, nucleotides.charAt(random.nextInt(nucleotides.length())));
+                    default -> sequenceB.deleteCharAt(position);
+                }
+            }
+            Integer bandWidth = k % 2 == 0 ? null : Math.abs(sequenceA.length() - sequenceB.length()) + 5;
+            SequenceOperations.MarginalGaps left = SequenceOperations.MarginalGaps.values()[k % 3];
+            SequenceOperations.MarginalGaps right = SequenceOperations.MarginalGaps.values()[(k / 3) % 3];
+            Tuple<String, String> expected = SequenceOperations.globalNucleotideSequenceAlignment(sequenceA.toString(),
+                    sequenceB.toString(), 3, 1, left, right, bandWidth, Long.MAX_VALUE);
+            Tuple<String, String> result = SequenceOperations.globalNucleotideSequenceAlignment(sequenceA.toString(),
+                    sequenceB.toString(), 3, 1, left, right, bandWidth, 64);
+            assertEquals(expected, result);
+        }
+    }
+
+    @Test
+    void globalProteinSequenceAlignment_cachedAlignment() {
+        String sequenceA = "MKTAYIAKQRQISFVKSHFSRQLEERLGLIEVQAPILSRVGDGTQDNLSGAEKAVQVKVKALPDAQFEVVHSLAKWKRQTLGQHDFSAGEGLYTHMKALRPDEDRLSPLHSVYVDQWDWERVMGDGERQFSTLKSTVEAIWAGIKATEAAVSEEFGLAPFLPDQIHFVHSQELLSRYPDLDAKGRERAIAKDLGAVFLVGIGGKLSDGHRHDVRAPDYDDWTAQ";
+        String sequenceB = "MKTAYIAKQRQISFVKSHFSRQLEERLGLIEVQAPILSRVGDGTQDNLSGAEKAVQVKVKALPDAQFEVVHSLAKWKRQTLGQHDFSAGEGLYTHMKALRPDEDRLSPLHSVYVDQWDWERVMGDGERQFSTLKSTVEAIWAGIKATEAAVSEEFGLAPFLPDQIHFVHSQELLSRYPDLDAKGRERAIAKDLGAVFLVGIGGKLSDGHRHDVRAPDYDDWAQ";
+        SequenceOperations.clearAlignmentCache();
+        Tuple<String, String> result = SequenceOperations.globalProteinSequenceAlignment(sequenceA, sequenceB, 8, 7,
+                SequenceOperations.MarginalGaps.FORBID, SequenceOperations.MarginalGaps.PENALIZE, 1);
+        assertSame(result, SequenceOperations.globalProteinSequenceAlignment(sequenceA, sequenceB, 8, 7,
+                SequenceOperations.MarginalGaps.FORBID, SequenceOperations.MarginalGaps.PENALIZE, 1));
+        assertNotSame(result, SequenceOperations.globalProteinSequenceAlignment(sequenceA, sequenceB, 8, 6,
+                SequenceOperations.MarginalGaps.FORBID, SequenceOperations.MarginalGaps.PENALIZE, 1));
+        assertEquals(sequenceB.length() + 1, result.b.length());
+    }
+
     @Test
     void getCanonicalVariants_identicalSequences() {
         String reference = "CGGGG";
@@ -238,4 +298,97 @@ public class SequenceOperationsTest {
         String sequence = "ATGCGTX";
         assertThrowsExactly(MusialException.class, () -> SequenceOperations.translateSequence(sequence, false));
     }
+
+    @Test
+    void translateSequence_invalidLeadingBaseReverse() {
+        String sequence = "XACGCAT";
+        assertThrowsExactly(MusialException.class, () -> SequenceOperations.translateSequence(sequence, true));
+    }
+
+    @Test
+    void translateSequence_alternativeStartCodon() throws MusialException {
+        assertEquals("MR", SequenceOperations.translateSequence("GTGCGT", false));
+        assertEquals("MV", SequenceOperations.translateSequence("ATAGTG", false));
+        assertEquals("MI", SequenceOperations.translateSequence("AATCAT", true));
+    }
+
+    @Test
+    void translateSequence_stopCodons() throws MusialException {
+        assertEquals("M*R", SequenceOperations.translateSequence("ATGTAACGTTAA", false));
+        assertEquals("", SequenceOperations.translateSequence("TGA", false));
+    }
+
+    @Test
+    void translateSequence_ambiguousSequence() throws MusialException {
+        assertEquals("MLKX", SequenceOperations.translateSequence("ATGCTNAARAAN", false));
+        assertEquals("MX", SequenceOperations.translateSequence("ATGCG-", false));
+        assertEquals("LH", SequenceOperations.translateSequence("atgnag", true));
+    }
+
+    @Test
+    void translateSequence_matchesBioJava() throws Exception {
+        TranscriptionEngine engine = new TranscriptionEngine.Builder()
+                .dnaCompounds(AmbiguityDNACompoundSet.getDNACompoundSet())
+                .rnaCompounds(AmbiguityRNACompoundSet.getRNACompoundSet())
+                .build();
+        Random random = new Random(11);
+        for (int i = 0; i < 100; i++) {
+            // Sequences start and end with ATG wrt. both strands, as BioJava uses the start codons of translation table 1.
+            StringBuilder sequence = new StringBuilder("ATG");
+            for (int j = random.nextInt(300); j > 0; j--)
+                sequence.append("ACGT".charAt(random.nextInt(4)));
+            sequence.append("CAT");
+            DNASequence dna = new DNASequence(sequence.toString());
+            assertEquals(engine.multipleFrameTranslation(dna, Frame.ONE).get(Frame.ONE).getSequenceAsString(),
+                    SequenceOperations.translateSequence(sequence.toString(), false));
+            assertEquals(engine.multipleFrameTranslation(dna, Frame.REVERSED_ONE).get(Frame.REVERSED_ONE).getSequenceAsString(),
+                    SequenceOperations.translateSequence(sequence.toString(), true));
+        }
+    }
+
+    @Test
+    void translateSubstitutedSequence_matchesTranslateSequence() throws MusialException {
+        Random random = new Random(30);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder sequence = new StringBuilder("ATG");
+            for (int j = random.nextInt(60); j > 0; j--)
+                sequence.append("ACGT".charAt(random.nextInt(4)));
+            sequence.append(random.nextBoolean() ? "TAA" : "CAT");
+            // Integrate random substitutions, including ambiguous bases.
+            HashMap<Integer, String> substitutions = new HashMap<>();
+            StringBuilder substitutedSequence = new StringBuilder(sequence);
+            for (int j = random.nextInt(5); j >= 0; j--) {
+                int index = random.nextInt(sequence.length());
+                String base = String.valueOf("ACGTN".charAt(random.nextInt(5)));
+                substitutions.put(index, base);
+                substitutedSequence.setCharAt(index, base.charAt(0));
+            }
+            for (boolean reverse : new boolean[]{false, true}) {
+                String translation = SequenceOperations.translateSequence(sequence.toString(), reverse);
+                assertEquals(SequenceOperations.translateSequence(substitutedSequence.toString(), reverse),
+                        SequenceOperations.translateSubstitutedSequence(sequence.toString(), reverse, translation, substitutions));
+            }
+        }
+    }
+
+    @Test
+    void translateCodon_matchesTranslateSequence() throws MusialException {
+        String bases = "TCAG";
+        for (int i = 0; i < 64; i++) {
+            String codon = "" + bases.charAt(i >> 4) + bases.charAt((i >> 2) & 3) + bases.charAt(i & 3);
+            // Prefix a start codon and append a non-stop codon, so that the codon is translated as an internal codon.
+            String translation = SequenceOperations.translateSequence("ATG" + codon + "CAT", false);
+            assertEquals(i, SequenceOperations.codonIndex(codon, false));
+            assertEquals(translation.charAt(1), SequenceOperations.translateCodon(SequenceOperations.codonIndex(codon, false)));
+            assertEquals(SequenceOperations.translateSequence(codon, false).equals("M"),
+                    SequenceOperations.isStartCodon(i));
+            String reverseComplement = new StringBuilder(codon).reverse().chars()
+                    .mapToObj(base -> String.valueOf("AGTC".charAt(bases.indexOf(base))))
+                    .reduce("", String::concat);
+            assertEquals(i, SequenceOperations.codonIndex(reverseComplement, true));
+        }
+        assertEquals(-1, SequenceOperations.codonIndex("ANG", false));
+        assertEquals(-1, SequenceOperations.codonIndex("A-G", false));
+        assertEquals(-1, SequenceOperations.codonIndex("AG", false));
+    }
 }